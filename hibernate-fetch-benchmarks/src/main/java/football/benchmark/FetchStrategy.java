@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package football.benchmark;
+
+import football.dto.PlayerWithTeamName;
+import football.entity.Player;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Ways of loading all the players with the name of their team. The association between
+ * a player and its team is lazy.
+ */
+public enum FetchStrategy {
+
+    /**
+     * Selects the players, then one team per select when the team name is read: N+1 selects.
+     */
+    LAZY_ACCESS {
+        @Override
+        public List<PlayerWithTeamName> findPlayersWithTeamName(EntityManager entityManager) {
+            List<Player> players = entityManager.createQuery("FROM Player", Player.class).getResultList();
+            return toPlayersWithTeamName(players);
+        }
+    },
+
+    JOIN_FETCH {
+        @Override
+        public List<PlayerWithTeamName> findPlayersWithTeamName(EntityManager entityManager) {
+            List<Player> players = entityManager.createQuery("FROM Player p JOIN FETCH p.team", Player.class)
+                                                .getResultList();
+            return toPlayersWithTeamName(players);
+        }
+    },
+
+    ENTITY_GRAPH {
+        @Override
+        public List<PlayerWithTeamName> findPlayersWithTeamName(EntityManager entityManager) {
+            List<Player> players = entityManager.createQuery("FROM Player", Player.class)
+                                                .setHint("javax.persistence.fetchgraph", entityManager.getEntityGraph(Player.WITH_TEAM))
+                                                .getResultList();
+            return toPlayersWithTeamName(players);
+        }
+    },
+
+    /**
+     * Selects the columns read, no entity is managed.
+     */
+    DTO_PROJECTION {
+        @Override
+        public List<PlayerWithTeamName> findPlayersWithTeamName(EntityManager entityManager) {
+            return entityManager.createQuery(
+                    "SELECT new football.dto.PlayerWithTeamName(p.firstName, p.lastName, t.name)"
+                  + " FROM Player p JOIN p.team t", PlayerWithTeamName.class)
+                                .getResultList();
+        }
+    },
+
+    /**
+     * Same query as {@link #LAZY_ACCESS}, the teams are selected {@value #TEAMS_PER_BATCH} at a time.
+     */
+    BATCH_SIZE {
+        @Override
+        public List<PlayerWithTeamName> findPlayersWithTeamName(EntityManager entityManager) {
+            return LAZY_ACCESS.findPlayersWithTeamName(entityManager);
+        }
+
+        @Override
+        public Map<String, Object> hibernateProperties() {
+            return Collections.singletonMap("hibernate.default_batch_fetch_size", TEAMS_PER_BATCH);
+        }
+    };
+
+    public static final int TEAMS_PER_BATCH = 100;
+
+    public abstract List<PlayerWithTeamName> findPlayersWithTeamName(EntityManager entityManager);
+
+    /**
+     * Hibernate properties the strategy needs on top of the default ones.
+     */
+    public Map<String, Object> hibernateProperties() {
+        return Collections.emptyMap();
+    }
+
+    private static List<PlayerWithTeamName> toPlayersWithTeamName(List<Player> players) {
+        return players.stream()
+                      .map(player -> new PlayerWithTeamName(player.getFirstName()
+                                                          , player.getLastName()
+                                                          , player.getTeam().getName()))
+                      .collect(toList());
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package football.benchmark;
+
+import football.dto.PlayerWithTeamName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads all the players with the name of their team, with each {@link FetchStrategy}.
+ *
+ * Throughput is measured in operations per second, latency as a distribution of
+ * operation times, and allocation per operation with the GC profiler added by
+ * {@link BenchmarkMain}. With 1M players, the lazy access strategy executes 100k selects
+ * per operation, so expect long iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class FetchStrategyBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int playerCount;
+
+    @Param
+    private FetchStrategy fetchStrategy;
+
+    private FootballDatabase database;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws SQLException {
+        database = FootballDatabase.withPlayers(playerCount, fetchStrategy.hibernateProperties());
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabase() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<PlayerWithTeamName> findPlayersWithTeamName() {
+        EntityManager entityManager = database.getSessionFactory().createEntityManager();
+        try {
+            return fetchStrategy.findPlayersWithTeamName(entityManager);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+}
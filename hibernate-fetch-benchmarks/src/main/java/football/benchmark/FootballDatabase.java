@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package football.benchmark;
+
+import football.entity.Player;
+import football.entity.Team;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-memory H2 database holding players and their teams, with the Hibernate session
+ * factory mapping them.
+ */
+public class FootballDatabase implements AutoCloseable {
+
+    public static final int PLAYERS_PER_TEAM = 10;
+
+    private final JdbcConnectionPool connectionPool;
+
+    private final SessionFactory sessionFactory;
+
+    private FootballDatabase(JdbcConnectionPool connectionPool, SessionFactory sessionFactory) {
+        this.connectionPool = connectionPool;
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Creates the schema and inserts the players, {@value #PLAYERS_PER_TEAM} per team.
+     * Statistics are not generated unless the given properties enable them, so that the
+     * session factory measured by the benchmark does not pay for them.
+     */
+    public static FootballDatabase withPlayers(int playerCount, Map<String, Object> hibernateProperties) throws SQLException {
+        String url = "jdbc:h2:mem:football" + Math.abs(ThreadLocalRandom.current().nextInt());
+        JdbcConnectionPool connectionPool = JdbcConnectionPool.create(url, "sa", "");
+
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(Player.class)
+                .addAnnotatedClass(Team.class)
+                .setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect")
+                .setProperty("hibernate.hbm2ddl.auto", "create")
+                .setProperty("hibernate.show_sql", "false");
+        configuration.getProperties().put("hibernate.connection.datasource", connectionPool);
+        configuration.getProperties().putAll(hibernateProperties);
+        SessionFactory sessionFactory = configuration.buildSessionFactory();
+
+        try (Connection connection = connectionPool.getConnection()) {
+            int teamCount = (playerCount + PLAYERS_PER_TEAM - 1) / PLAYERS_PER_TEAM;
+            try (PreparedStatement insertTeams = connection.prepareStatement(
+                    "INSERT INTO TEAM (id, name) SELECT X, CONCAT('team', X) FROM SYSTEM_RANGE(1, ?)")) {
+                insertTeams.setInt(1, teamCount);
+                insertTeams.executeUpdate();
+            }
+            try (PreparedStatement insertPlayers = connection.prepareStatement(
+                    "INSERT INTO PLAYER (id, firstName, lastName, team_id)"
+                  + " SELECT X, CONCAT('firstName', X), CONCAT('lastName', X), (X - 1) / ? + 1"
+                  + " FROM SYSTEM_RANGE(1, ?)")) {
+                insertPlayers.setInt(1, PLAYERS_PER_TEAM);
+                insertPlayers.setInt(2, playerCount);
+                insertPlayers.executeUpdate();
+            }
+        }
+
+        return new FootballDatabase(connectionPool, sessionFactory);
+    }
+
+    public SessionFactory getSessionFactory() {
+        return sessionFactory;
+    }
+
+    @Override
+    public void close() {
+        sessionFactory.close();
+        connectionPool.dispose();
+    }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package football.dto;
+
+import java.io.Serializable;
+
+public class PlayerWithTeamName implements Serializable {
+
+    private String firstName;
+
+    private String lastName;
+
+    private String team;
+
+    public PlayerWithTeamName(String firstName, String lastName, String team) {
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.team = team;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getTeam() {
+        return team;
+    }
+
+}
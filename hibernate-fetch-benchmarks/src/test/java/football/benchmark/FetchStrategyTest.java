@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package football.benchmark;
+
+import football.dto.PlayerWithTeamName;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FetchStrategyTest {
+
+    private static final int PLAYER_COUNT = 1_005;
+
+    // The last team has 5 players
+    private static final int TEAM_COUNT = 101;
+
+    @ParameterizedTest
+    @EnumSource(FetchStrategy.class)
+    public void should_find_all_players_with_their_team_name(FetchStrategy fetchStrategy) throws SQLException {
+
+        try (FootballDatabase database = FootballDatabase.withPlayers(PLAYER_COUNT, fetchStrategy.hibernateProperties())) {
+            EntityManager entityManager = database.getSessionFactory().createEntityManager();
+
+            List<PlayerWithTeamName> playersWithTeamName = fetchStrategy.findPlayersWithTeamName(entityManager);
+
+            assertThat(playersWithTeamName).hasSize(PLAYER_COUNT)
+                                           .anySatisfy(player -> {
+                                               assertThat(player.getFirstName()).isEqualTo("firstName1005");
+                                               assertThat(player.getTeam()).isEqualTo("team101");
+                                           });
+            entityManager.close();
+        }
+
+    }
+
+    @ParameterizedTest
+    @EnumSource(FetchStrategy.class)
+    public void should_execute_the_expected_number_of_selects(FetchStrategy fetchStrategy) throws SQLException {
+
+        Map<String, Object> hibernateProperties = new HashMap<>(fetchStrategy.hibernateProperties());
+        hibernateProperties.put("hibernate.generate_statistics", "true");
+        try (FootballDatabase database = FootballDatabase.withPlayers(PLAYER_COUNT, hibernateProperties)) {
+            Statistics statistics = database.getSessionFactory().getStatistics();
+            statistics.clear();
+            EntityManager entityManager = database.getSessionFactory().createEntityManager();
+
+            fetchStrategy.findPlayersWithTeamName(entityManager);
+
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(expectedSelectCount(fetchStrategy));
+            entityManager.close();
+        }
+
+    }
+
+    private static long expectedSelectCount(FetchStrategy fetchStrategy) {
+        switch (fetchStrategy) {
+            case LAZY_ACCESS:
+                return 1 + TEAM_COUNT;
+            case BATCH_SIZE:
+                return 1 + (TEAM_COUNT + FetchStrategy.TEAMS_PER_BATCH - 1) / FetchStrategy.TEAMS_PER_BATCH;
+            default:
+                return 1;
+        }
+    }
+
+}
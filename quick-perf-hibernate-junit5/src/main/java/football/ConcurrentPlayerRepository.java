@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package football;
+
+import football.entity.Player;
+import org.hibernate.annotations.QueryHints;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Player repository that can be shared by several threads.
+ *
+ * {@link PlayerRepository} works with a single {@link EntityManager}, which must not be
+ * used by more than one thread. This repository only holds the thread-safe
+ * {@link EntityManagerFactory} and opens a short-lived entity manager for each unit of
+ * work, closed when the work ends. The returned players are detached.
+ */
+public class ConcurrentPlayerRepository {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ConcurrentPlayerRepository(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public List<Player> findAll() {
+        // Detached on return, so a loaded-state snapshot would never be used
+        return inUnitOfWork(entityManager -> entityManager.createQuery("FROM Player", Player.class)
+                                                          .setHint(QueryHints.READ_ONLY, true)
+                                                          .getResultList());
+    }
+
+    public Player findById(Long id) {
+        return inUnitOfWork(entityManager -> entityManager.find(Player.class, id));
+    }
+
+    /**
+     * Runs the work with an entity manager of its own, inside a transaction that is
+     * committed when the work returns and rolled back when it throws. The entity manager
+     * must not escape the work.
+     */
+    public <T> T inUnitOfWork(Function<EntityManager, T> work) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            T result = work.apply(entityManager);
+            entityManager.getTransaction().commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+}
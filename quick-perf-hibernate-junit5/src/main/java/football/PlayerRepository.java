@@ -14,11 +14,18 @@
 package football;
 
 import football.entity.Player;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.annotations.QueryHints;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class PlayerRepository {
 
@@ -33,4 +40,51 @@ public class PlayerRepository {
         return fromPlayer.getResultList();
     }
 
+    /**
+     * Loads all the players, and their team, as read-only entities.
+     *
+     * Hibernate keeps no loaded-state snapshot of read-only entities, so they cost less
+     * heap than managed ones and are skipped by dirty checking at flush time. Changes made
+     * to the returned players are not written to the database.
+     */
+    public List<Player> findAllReadOnly() {
+        Session session = entityManager.unwrap(Session.class);
+        boolean defaultReadOnly = session.isDefaultReadOnly();
+        // The hint covers the players, the session default covers the teams loaded with them
+        session.setDefaultReadOnly(true);
+        try {
+            TypedQuery<Player> fromPlayer = entityManager.createQuery("FROM Player", Player.class)
+                                                         .setHint(QueryHints.READ_ONLY, true);
+            return fromPlayer.getResultList();
+        } finally {
+            session.setDefaultReadOnly(defaultReadOnly);
+        }
+    }
+
+    /**
+     * Pushes all the players, with their team, to the consumer.
+     *
+     * The rows are scrolled forward-only from a stateless session: the players are
+     * neither kept in a persistence context nor snapshotted, so the heap used does not
+     * grow with the number of exported rows.
+     *
+     * @param fetchSize number of rows fetched per database round trip
+     * @return the number of exported players
+     */
+    public long exportPlayersWithTeam(int fetchSize, Consumer<Player> consumer) {
+        SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        try (StatelessSession session = sessionFactory.openStatelessSession();
+             ScrollableResults players = session.createQuery("FROM Player p JOIN FETCH p.team", Player.class)
+                                                .setFetchSize(fetchSize)
+                                                .setReadOnly(true)
+                                                .scroll(ScrollMode.FORWARD_ONLY)) {
+            long exportedCount = 0;
+            while (players.next()) {
+                consumer.accept((Player) players.get(0));
+                exportedCount++;
+            }
+            return exportedCount;
+        }
+    }
+
 }
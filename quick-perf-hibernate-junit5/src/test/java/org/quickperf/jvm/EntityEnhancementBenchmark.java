@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package org.quickperf.jvm;
+
+import football.entity.Player;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.quickperf.sql.config.HibernateEntityManagerBuilder.anHibernateEntityManager;
+import static org.quickperf.sql.config.TestDataSourceBuilder.aDataSource;
+import static org.quickperf.sql.config.TestPlayers.insertPlayers;
+
+/**
+ * Flush cost of a persistence context holding many managed players of which only one
+ * is modified, and retained heap per managed player. Without bytecode enhancement, the
+ * flush compares every managed player with its loaded state; with enhancement, the
+ * players track their own dirty attributes.
+ *
+ * Entities are enhanced by the build. To compare, run the main method once as is and
+ * once after a build without enhancement:
+ * mvn -Dmaven.test.skip=false test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-classpath %classpath org.quickperf.jvm.EntityEnhancementBenchmark"
+ * mvn -Dmaven.test.skip=false -Dhibernate.enhance.skip clean test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-classpath %classpath org.quickperf.jvm.EntityEnhancementBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EntityEnhancementBenchmark {
+
+    private static final int MAX_ENTITY_COUNT = 100_000;
+
+    @Param({"10000", "50000", "100000"})
+    private int entityCount;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void createPlayers() throws SQLException {
+        DataSource dataSource = aDataSource().build();
+        entityManagerFactory = anHibernateEntityManager(dataSource).getEntityManagerFactory();
+        insertPlayers(dataSource, MAX_ENTITY_COUNT);
+    }
+
+    @Setup(Level.Invocation)
+    public void loadPlayers() {
+        entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        List<Player> players = findPlayers(entityManager, entityCount);
+        players.get(0).setLastName("transferred");
+    }
+
+    @Benchmark
+    public void flush() {
+        entityManager.flush();
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeEntityManager() {
+        entityManager.getTransaction().rollback();
+        entityManager.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void closeEntityManagerFactory() {
+        entityManagerFactory.close();
+    }
+
+    private static List<Player> findPlayers(EntityManager entityManager, int playerCount) {
+        return entityManager.createQuery("FROM Player p WHERE p.id >= 1000 ORDER BY p.id", Player.class)
+                            .setMaxResults(playerCount)
+                            .getResultList();
+    }
+
+    /**
+     * Heap still used once the players are loaded, divided by the number of players. The
+     * persistence context, the loaded states and the players themselves are counted.
+     */
+    private static long retainedBytesPerPlayer(EntityManagerFactory entityManagerFactory, int playerCount) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            long usedBefore = UsedHeap.afterGc();
+            List<Player> players = findPlayers(entityManager, playerCount);
+            long usedAfter = UsedHeap.afterGc();
+            if (players.size() != playerCount) {
+                throw new IllegalStateException(players.size() + " players loaded instead of " + playerCount);
+            }
+            return (usedAfter - usedBefore) / playerCount;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException, SQLException {
+        boolean enhanced = SelfDirtinessTracker.class.isAssignableFrom(Player.class);
+        String mode = enhanced ? "enhanced" : "not-enhanced";
+
+        new Runner(new OptionsBuilder()
+                .include(EntityEnhancementBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/entity-enhancement-benchmark-" + mode + ".json")
+                .build())
+                .run();
+
+        DataSource dataSource = aDataSource().build();
+        EntityManagerFactory entityManagerFactory = anHibernateEntityManager(dataSource).getEntityManagerFactory();
+        try {
+            insertPlayers(dataSource, MAX_ENTITY_COUNT);
+            for (int playerCount : new int[] {10_000, 50_000, 100_000}) {
+                System.out.println("Retained heap per managed player (" + mode + ", " + playerCount + " players): "
+                                 + retainedBytesPerPlayer(entityManagerFactory, playerCount) + " bytes");
+            }
+        } finally {
+            entityManagerFactory.close();
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package org.quickperf.jvm;
+
+import football.PlayerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.quickperf.annotation.DisableGlobalAnnotations;
+import org.quickperf.junit5.QuickPerfTest;
+import org.quickperf.jvm.allocation.AllocationUnit;
+import org.quickperf.jvm.annotations.HeapSize;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.quickperf.sql.config.HibernateEntityManagerBuilder.anHibernateEntityManager;
+import static org.quickperf.sql.config.TestDataSourceBuilder.aDataSource;
+import static org.quickperf.sql.config.TestPlayers.insertPlayers;
+
+@QuickPerfTest
+public class PlayerRepositoryExportTest {
+
+    // Several hundred megabytes once loaded as managed entities
+    private static final int PLAYER_COUNT = 500_000;
+
+    @TempDir
+    Path directory;
+
+    @HeapSize(value = 48, unit = AllocationUnit.MEGA_BYTE)
+    @DisableGlobalAnnotations // Global annotations are about SQL, this test is about heap
+    @Test
+    public void should_export_more_players_than_the_heap_could_hold_as_entities() throws Exception {
+
+        // The database is stored on disk, otherwise its rows would fill the heap
+        DataSource dataSource = aDataSource().inDirectory(directory).build();
+        EntityManager entityManager = anHibernateEntityManager(dataSource);
+        insertPlayers(dataSource, PLAYER_COUNT);
+
+        PlayerRepository playerRepository = new PlayerRepository(entityManager);
+        AtomicLong playersWithTeamName = new AtomicLong();
+
+        long exportedCount = playerRepository.exportPlayersWithTeam(1_000, player -> {
+            if (player.getTeam().getName() != null) {
+                playersWithTeamName.incrementAndGet();
+            }
+        });
+
+        // import.sql inserts two more players
+        assertThat(exportedCount).isEqualTo(PLAYER_COUNT + 2);
+        assertThat(playersWithTeamName).hasValue(PLAYER_COUNT + 2);
+
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package org.quickperf.jvm;
+
+import football.PlayerRepository;
+import football.entity.Player;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quickperf.annotation.DisableGlobalAnnotations;
+import org.quickperf.junit5.QuickPerfTest;
+import org.quickperf.jvm.allocation.AllocationUnit;
+import org.quickperf.jvm.annotations.ExpectMaxHeapAllocation;
+import org.quickperf.jvm.annotations.HeapSize;
+import org.quickperf.jvm.annotations.MeasureHeapAllocation;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.quickperf.sql.config.HibernateEntityManagerBuilder.anHibernateEntityManager;
+import static org.quickperf.sql.config.TestDataSourceBuilder.aDataSource;
+import static org.quickperf.sql.config.TestPlayers.insertPlayers;
+
+@QuickPerfTest
+@DisableGlobalAnnotations // Global annotations are about SQL, these tests are about heap
+public class PlayerRepositoryReadOnlyTest {
+
+    // With the two players of import.sql
+    private static final int PLAYER_COUNT = 10_002;
+
+    // The loaded state of a managed player, an array of its three persistent attributes,
+    // takes 32 bytes with compressed references
+    private static final int MIN_SAVED_BYTES_PER_PLAYER = 24;
+
+    private EntityManager entityManager;
+
+    private PlayerRepository playerRepository;
+
+    @BeforeEach
+    public void insert_players() throws SQLException {
+        DataSource dataSource = aDataSource().build();
+        entityManager = anHibernateEntityManager(dataSource);
+        insertPlayers(dataSource, PLAYER_COUNT - 2);
+        playerRepository = new PlayerRepository(entityManager);
+    }
+
+    // About 1.7 KB allocated per player
+    @MeasureHeapAllocation
+    @Test
+    public void should_load_players_as_managed_entities() {
+
+        List<Player> players = playerRepository.findAll();
+
+        assertThat(players).hasSize(PLAYER_COUNT);
+
+    }
+
+    // Loading allocates as much as in managed mode, the saving is in the heap retained
+    // by the persistence context, see should_retain_less_heap_per_player_than_managed_entities
+    @MeasureHeapAllocation
+    @ExpectMaxHeapAllocation(value = 18, unit = AllocationUnit.MEGA_BYTE)
+    @Test
+    public void should_load_players_as_read_only_entities() {
+
+        List<Player> players = playerRepository.findAllReadOnly();
+
+        assertThat(players).hasSize(PLAYER_COUNT);
+
+    }
+
+    @Test
+    public void should_keep_no_loaded_state_of_read_only_players() {
+
+        List<Player> players = playerRepository.findAllReadOnly();
+
+        PersistenceContext persistenceContext = entityManager.unwrap(SessionImplementor.class)
+                                                             .getPersistenceContext();
+        assertThat(players).allSatisfy(player -> {
+            assertThat(persistenceContext.getEntry(player).getLoadedState()).isNull();
+            assertThat(persistenceContext.getEntry(player.getTeam()).getLoadedState()).isNull();
+        });
+        assertThat(entityManager.unwrap(Session.class).isDefaultReadOnly()).isFalse();
+
+    }
+
+    // About 284 bytes retained per managed player and 252 per read-only player
+    @HeapSize(value = 64, unit = AllocationUnit.MEGA_BYTE) // In a JVM of its own, free of the garbage of other tests
+    @Test
+    public void should_retain_less_heap_per_player_than_managed_entities() {
+
+        // Loads once in each mode first, so that the query plans and the other state built
+        // by a first load are not counted
+        bytesRetainedPerLoadedPlayer(PlayerRepository::findAll);
+        bytesRetainedPerLoadedPlayer(PlayerRepository::findAllReadOnly);
+
+        long managedBytesPerPlayer = bytesRetainedPerLoadedPlayer(PlayerRepository::findAll);
+        long readOnlyBytesPerPlayer = bytesRetainedPerLoadedPlayer(PlayerRepository::findAllReadOnly);
+
+        assertThat(readOnlyBytesPerPlayer)
+                .as("Heap retained per loaded player: managed %d bytes, read-only %d bytes",
+                    managedBytesPerPlayer, readOnlyBytesPerPlayer)
+                .isLessThanOrEqualTo(managedBytesPerPlayer - MIN_SAVED_BYTES_PER_PLAYER);
+
+    }
+
+    /**
+     * Heap still used once the players are loaded by a new entity manager, divided by the
+     * number of players. The players and the persistence context holding them are counted:
+     * the players being the same in both modes, the difference between the modes is the
+     * heap retained by the persistence context.
+     */
+    private long bytesRetainedPerLoadedPlayer(Function<PlayerRepository, List<Player>> playerLoad) {
+        EntityManager loadingEntityManager = entityManager.getEntityManagerFactory().createEntityManager();
+        try {
+            long usedBefore = UsedHeap.afterGc();
+            List<Player> players = playerLoad.apply(new PlayerRepository(loadingEntityManager));
+            long usedAfter = UsedHeap.afterGc();
+            assertThat(players).hasSize(PLAYER_COUNT);
+            return (usedAfter - usedBefore) / PLAYER_COUNT;
+        } finally {
+            loadingEntityManager.close();
+        }
+    }
+
+}
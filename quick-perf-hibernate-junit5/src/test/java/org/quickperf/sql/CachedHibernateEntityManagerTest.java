@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package org.quickperf.sql;
+
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.quickperf.sql.config.HibernateEntityManagerBuilder.aCachedHibernateEntityManager;
+import static org.quickperf.sql.config.TestDataSourceBuilder.aDataSource;
+
+public class CachedHibernateEntityManagerTest {
+
+    @Test
+    public void should_share_the_factory_of_a_data_source_supplier() {
+
+        EntityManagerFactory first = entityManagerFactoryOfSmallPool();
+        EntityManagerFactory second = entityManagerFactoryOfSmallPool();
+
+        assertThat(second).isSameAs(first);
+
+    }
+
+    @Test
+    public void should_not_share_the_factory_of_another_data_source_supplier() {
+
+        EntityManagerFactory smallPoolFactory = entityManagerFactoryOfSmallPool();
+        EntityManager entityManager = aCachedHibernateEntityManager(() -> aDataSource().withMaxActive(8).build());
+
+        assertThat(entityManager.getEntityManagerFactory()).isNotSameAs(smallPoolFactory);
+        entityManager.close();
+
+    }
+
+    @Test
+    public void should_reject_a_data_source_supplier_capturing_values() {
+
+        DataSource dataSource = aDataSource().build();
+
+        assertThatThrownBy(() -> aCachedHibernateEntityManager(() -> dataSource))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("captures values");
+
+    }
+
+    private static EntityManagerFactory entityManagerFactoryOfSmallPool() {
+        EntityManager entityManager = aCachedHibernateEntityManager(() -> aDataSource().withMaxActive(1).build());
+        EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
+        entityManager.close();
+        return entityManagerFactory;
+    }
+
+}
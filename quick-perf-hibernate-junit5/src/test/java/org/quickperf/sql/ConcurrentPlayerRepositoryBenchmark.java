@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package org.quickperf.sql;
+
+import football.ConcurrentPlayerRepository;
+import football.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.quickperf.sql.config.HibernateEntityManagerBuilder.anHibernateEntityManagerFactory;
+import static org.quickperf.sql.config.TestDataSourceBuilder.aDataSource;
+import static org.quickperf.sql.config.TestPlayers.FIRST_PLAYER_ID;
+import static org.quickperf.sql.config.TestPlayers.insertPlayers;
+
+/**
+ * Throughput of {@link ConcurrentPlayerRepository} reads shared by 1, 2, 4... threads, up
+ * to the number of available processors. Each read loads a page of 100 players from
+ * an in-memory H2 database, in a unit of work of its own. The pool has a connection per
+ * thread, so that threads only contend on Hibernate and H2.
+ *
+ * Run the main method from the IDE, or with
+ * mvn -Dmaven.test.skip=false test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-classpath %classpath org.quickperf.sql.ConcurrentPlayerRepositoryBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentPlayerRepositoryBenchmark {
+
+    private static final int PLAYER_COUNT = 10_000;
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final int MAX_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private ConcurrentPlayerRepository playerRepository;
+
+    @Setup(Level.Trial)
+    public void createPlayers() throws SQLException {
+        DataSource dataSource = aDataSource().withMaxActive(MAX_THREAD_COUNT).build();
+        entityManagerFactory = anHibernateEntityManagerFactory(dataSource);
+        playerRepository = new ConcurrentPlayerRepository(entityManagerFactory);
+        insertPlayers(dataSource, PLAYER_COUNT);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeEntityManagerFactory() {
+        entityManagerFactory.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Page {
+
+        private int firstPlayerId = FIRST_PLAYER_ID;
+
+        int next() {
+            int pageStart = firstPlayerId;
+            firstPlayerId = pageStart + PAGE_SIZE < FIRST_PLAYER_ID + PLAYER_COUNT ? pageStart + PAGE_SIZE : FIRST_PLAYER_ID;
+            return pageStart;
+        }
+
+    }
+
+    @Benchmark
+    public List<Player> findPage(Page page) {
+        long firstPlayerId = page.next();
+        return playerRepository.inUnitOfWork(entityManager ->
+                entityManager.createQuery("FROM Player p WHERE p.id >= :firstPlayerId ORDER BY p.id", Player.class)
+                             .setParameter("firstPlayerId", firstPlayerId)
+                             .setMaxResults(PAGE_SIZE)
+                             .getResultList());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threadCount = 1; threadCount <= MAX_THREAD_COUNT; threadCount *= 2) {
+            new Runner(new OptionsBuilder()
+                    .include(ConcurrentPlayerRepositoryBenchmark.class.getSimpleName())
+                    .threads(threadCount)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/concurrent-player-repository-benchmark-" + threadCount + "-threads.json")
+                    .build())
+                    .run();
+        }
+    }
+
+}
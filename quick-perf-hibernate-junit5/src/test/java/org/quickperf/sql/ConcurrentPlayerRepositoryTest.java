@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package org.quickperf.sql;
+
+import football.ConcurrentPlayerRepository;
+import football.entity.Player;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.quickperf.sql.config.HibernateEntityManagerBuilder.anHibernateEntityManagerFactory;
+import static org.quickperf.sql.config.TestDataSourceBuilder.aDataSource;
+
+public class ConcurrentPlayerRepositoryTest {
+
+    private static final int THREAD_COUNT = 8;
+
+    private static final int UNITS_OF_WORK_PER_THREAD = 200;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void create_entity_manager_factory() {
+        entityManagerFactory = anHibernateEntityManagerFactory(aDataSource().withMaxActive(THREAD_COUNT).build());
+    }
+
+    @AfterEach
+    public void close_entity_manager_factory() {
+        entityManagerFactory.close();
+    }
+
+    @Test
+    public void should_never_share_a_session_between_threads() throws Exception {
+
+        ConcurrentPlayerRepository playerRepository = new ConcurrentPlayerRepository(entityManagerFactory);
+        Map<Session, Thread> sessionOwners = new ConcurrentHashMap<>();
+        Set<Player> loadedPlayers = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        Set<Session> sessionsSeenByAnotherThread = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < UNITS_OF_WORK_PER_THREAD; j++) {
+                    List<Player> players = playerRepository.inUnitOfWork(entityManager -> {
+                        Session session = entityManager.unwrap(Session.class);
+                        Thread owner = sessionOwners.putIfAbsent(session, Thread.currentThread());
+                        if (owner != null && owner != Thread.currentThread()) {
+                            sessionsSeenByAnotherThread.add(session);
+                        }
+                        return entityManager.createQuery("FROM Player", Player.class).getResultList();
+                    });
+                    loadedPlayers.addAll(players);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(sessionsSeenByAnotherThread).isEmpty();
+        // A persistence context shared by two units of work would return the same instances
+        int unitOfWorkCount = THREAD_COUNT * UNITS_OF_WORK_PER_THREAD;
+        assertThat(loadedPlayers).hasSize(unitOfWorkCount * 2);
+        assertThat(sessionOwners).hasSize(unitOfWorkCount);
+        assertThat(sessionOwners.keySet()).allSatisfy(session -> assertThat(session.isOpen()).isFalse());
+
+    }
+
+    @Test
+    public void should_roll_back_a_failed_unit_of_work() {
+
+        ConcurrentPlayerRepository playerRepository = new ConcurrentPlayerRepository(entityManagerFactory);
+
+        assertThatThrownBy(() -> playerRepository.inUnitOfWork(entityManager -> {
+            entityManager.find(Player.class, 1L).setLastName("Changed");
+            entityManager.flush();
+            throw new IllegalStateException("failure after the update");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(playerRepository.findById(1L).getLastName()).isNotEqualTo("Changed");
+
+    }
+
+}
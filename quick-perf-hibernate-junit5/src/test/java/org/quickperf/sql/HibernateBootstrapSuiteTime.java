@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package org.quickperf.sql;
+
+import football.entity.Player;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.quickperf.sql.config.HibernateEntityManagerBuilder.aCachedHibernateEntityManager;
+import static org.quickperf.sql.config.HibernateEntityManagerBuilder.anHibernateEntityManager;
+import static org.quickperf.sql.config.TestDataSourceBuilder.aDataSource;
+
+/**
+ * Total time of a generated suite of 50 test classes of two tests, each test getting its
+ * entity manager the way HibernateJUnit5Test does and loading the players, with and
+ * without the bootstrap cache of HibernateEntityManagerBuilder.
+ *
+ * Run the main method from the IDE, or with
+ * mvn -Dmaven.test.skip=false test-compile exec:java -Dexec.mainClass=org.quickperf.sql.HibernateBootstrapSuiteTime -Dexec.classpathScope=test
+ */
+public class HibernateBootstrapSuiteTime {
+
+    private static final int TEST_CLASS_COUNT = 50;
+
+    private static final int TESTS_PER_CLASS = 2;
+
+    public static void main(String[] args) {
+        // Class loading and JIT warm-up, so that the first measured suite is not penalized
+        runSuite(() -> anHibernateEntityManager(aDataSource().build()));
+
+        long withoutCache = runSuite(() -> anHibernateEntityManager(aDataSource().build()));
+        long withCache = runSuite(() -> aCachedHibernateEntityManager(() -> aDataSource().build()));
+
+        System.out.println("Suite of " + TEST_CLASS_COUNT + " test classes without bootstrap cache: " + withoutCache + " ms");
+        System.out.println("Suite of " + TEST_CLASS_COUNT + " test classes with bootstrap cache: " + withCache + " ms");
+    }
+
+    private static long runSuite(Supplier<EntityManager> entityManagerPerTest) {
+        long start = System.nanoTime();
+        for (int testClass = 0; testClass < TEST_CLASS_COUNT; testClass++) {
+            for (int test = 0; test < TESTS_PER_CLASS; test++) {
+                EntityManager entityManager = entityManagerPerTest.get();
+                List<Player> players = entityManager.createQuery("FROM Player", Player.class).getResultList();
+                if (players.size() != 2) {
+                    throw new IllegalStateException("The players of import.sql were expected, not " + players);
+                }
+                entityManager.close();
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+}
@@ -29,7 +29,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.quickperf.sql.config.HibernateEntityManagerBuilder.anHibernateEntityManager;
+import static org.quickperf.sql.config.HibernateEntityManagerBuilder.aCachedHibernateEntityManager;
 import static org.quickperf.sql.config.TestDataSourceBuilder.aDataSource;
 
 @QuickPerfTest
@@ -149,13 +149,17 @@ public class HibernateJUnit5Test {
     private EntityManager entityManager;
 
     {
-        DataSource dataSource = aDataSource().build();
+        // The entity manager factory is built once for all the test classes, the data is
+        // reset for each test
+        entityManager = aCachedHibernateEntityManager(() -> {
+            DataSource dataSource = aDataSource().build();
 
-        // A data source proxy is built to allow QuickPerf to intercept the SQL statements
-        ProxyDataSource proxyDataSource = QuickPerfSqlDataSourceBuilder.aDataSourceBuilder()
-                .buildProxy(dataSource);
+            // A data source proxy is built to allow QuickPerf to intercept the SQL statements
+            ProxyDataSource proxyDataSource = QuickPerfSqlDataSourceBuilder.aDataSourceBuilder()
+                    .buildProxy(dataSource);
 
-        entityManager = anHibernateEntityManager(proxyDataSource);
+            return proxyDataSource;
+        });
     }
 
 }
@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package org.quickperf.sql;
+
+import org.junit.jupiter.api.Test;
+import org.quickperf.sql.config.InstrumentedDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.quickperf.sql.config.ConnectionPoolAssert.assertThatPool;
+import static org.quickperf.sql.config.TestDataSourceBuilder.aDataSource;
+
+public class InstrumentedDataSourceTest {
+
+    @Test
+    public void should_fail_on_a_connection_borrow_waiting_for_the_pool() throws Exception {
+
+        InstrumentedDataSource dataSource = aDataSource().withMaxActive(1).buildInstrumented();
+        CountDownLatch connectionHeld = new CountDownLatch(1);
+
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                connectionHeld.countDown();
+                Thread.sleep(200);
+            } catch (SQLException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        connectionHeld.await();
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+        holder.get();
+
+        assertThat(dataSource.getBorrowCount()).isEqualTo(2);
+        assertThat(dataSource.getMaxBorrowWait()).isGreaterThan(Duration.ofMillis(100));
+        assertThatPool(dataSource).hasMaxActiveAtMost(1);
+        assertThatThrownBy(() -> assertThatPool(dataSource).hasNoBorrowWaitLongerThan(Duration.ofMillis(50)))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("Expected no connection borrow to wait more than <PT0.05S>")
+                .hasMessageContaining("InstrumentedDataSourceTest.lambda$should_fail_on_a_connection_borrow_waiting_for_the_pool");
+
+    }
+
+    @Test
+    public void should_record_hold_times_per_caller() throws SQLException {
+
+        InstrumentedDataSource dataSource = aDataSource().buildInstrumented();
+
+        for (int i = 0; i < 3; i++) {
+            try (Connection connection = dataSource.getConnection()) {
+                assertThat(connection.isValid(1)).isTrue();
+            }
+        }
+
+        assertThat(dataSource.getHoldTimesByCaller())
+                .containsOnlyKeys(InstrumentedDataSourceTest.class.getName() + ".should_record_hold_times_per_caller");
+        assertThat(dataSource.getHoldTimesByCaller().values().iterator().next().getCount()).isEqualTo(3);
+        assertThat(dataSource.getPoolSamples()).hasSize(6)
+                                               .last()
+                                               .satisfies(sample -> {
+                                                   assertThat(sample.getActive()).isZero();
+                                                   assertThat(sample.getIdle()).isEqualTo(1);
+                                               });
+
+    }
+
+    @Test
+    public void should_count_prepared_statement_cache_hits() throws SQLException {
+
+        InstrumentedDataSource dataSource = aDataSource().buildInstrumented();
+
+        for (int i = 0; i < 3; i++) {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement select = connection.prepareStatement("SELECT 1")) {
+                select.execute();
+            }
+        }
+
+        assertThat(dataSource.getPreparedStatementCacheMisses()).isEqualTo(1);
+        assertThatPool(dataSource).hasPreparedStatementCacheHitsAtLeast(2);
+
+    }
+
+}
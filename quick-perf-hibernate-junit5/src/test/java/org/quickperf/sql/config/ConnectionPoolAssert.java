@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package org.quickperf.sql.config;
+
+import org.assertj.core.api.AbstractAssert;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Assertions on the pool usage recorded by an {@link InstrumentedDataSource}:
+ * <pre>
+ * assertThatPool(dataSource).hasNoBorrowWaitLongerThan(Duration.ofMillis(5));
+ * </pre>
+ */
+public class ConnectionPoolAssert extends AbstractAssert<ConnectionPoolAssert, InstrumentedDataSource> {
+
+    private ConnectionPoolAssert(InstrumentedDataSource actual) {
+        super(actual, ConnectionPoolAssert.class);
+    }
+
+    public static ConnectionPoolAssert assertThatPool(InstrumentedDataSource dataSource) {
+        return new ConnectionPoolAssert(dataSource);
+    }
+
+    public ConnectionPoolAssert hasNoBorrowWaitLongerThan(Duration maxWait) {
+        isNotNull();
+        Duration maxBorrowWait = actual.getMaxBorrowWait();
+        if (maxBorrowWait.compareTo(maxWait) > 0) {
+            failWithMessage("Expected no connection borrow to wait more than <%s> but one waited <%s>%n"
+                          + "Borrow wait histogram (upper bounds %s): %s%n"
+                          + "Perhaps the pool is too small for the number of threads, or connections are held too long: %s"
+                          , maxWait, maxBorrowWait, InstrumentedDataSource.BORROW_WAIT_BUCKET_BOUNDS
+                          , Arrays.toString(actual.getBorrowWaitHistogram()), describeHoldTimes());
+        }
+        return this;
+    }
+
+    public ConnectionPoolAssert hasNoConnectionHeldLongerThan(Duration maxHold) {
+        isNotNull();
+        for (Map.Entry<String, InstrumentedDataSource.HoldTimes> holdTimes : actual.getHoldTimesByCaller().entrySet()) {
+            if (holdTimes.getValue().getMax().compareTo(maxHold) > 0) {
+                failWithMessage("Expected no connection to be held more than <%s> but <%s> held one <%s>"
+                              , maxHold, holdTimes.getKey(), holdTimes.getValue().getMax());
+            }
+        }
+        return this;
+    }
+
+    public ConnectionPoolAssert hasMaxActiveAtMost(int maxActive) {
+        isNotNull();
+        if (actual.getMaxActive() > maxActive) {
+            failWithMessage("Expected at most <%s> active connections but there were <%s>"
+                          , maxActive, actual.getMaxActive());
+        }
+        return this;
+    }
+
+    public ConnectionPoolAssert hasPreparedStatementCacheHitsAtLeast(long hits) {
+        isNotNull();
+        if (actual.getPreparedStatementCacheHits() < hits) {
+            failWithMessage("Expected at least <%s> prepared statement cache hits but there were <%s> (<%s> misses)"
+                          , hits, actual.getPreparedStatementCacheHits(), actual.getPreparedStatementCacheMisses());
+        }
+        return this;
+    }
+
+    private String describeHoldTimes() {
+        StringBuilder description = new StringBuilder();
+        actual.getHoldTimesByCaller().forEach((caller, holdTimes) ->
+                description.append(String.format("%n\t%s: %d connections, %s in total, %s at most"
+                        , caller, holdTimes.getCount(), holdTimes.getTotal(), holdTimes.getMax())));
+        return description.toString();
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package org.quickperf.sql.config;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Puts an H2 database back in the state left by the schema creation: empty tables,
+ * restarted sequences and the rows of import.sql.
+ */
+class DatabaseReset {
+
+    private DatabaseReset() {}
+
+    static void resetData(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        Set<String> tableNames = tableNames(entityManagerFactory);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            for (String tableName : tableNames) {
+                statement.execute("TRUNCATE TABLE " + tableName);
+            }
+            statement.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            for (String sequenceName : sequenceNames(statement)) {
+                statement.execute("ALTER SEQUENCE " + sequenceName + " RESTART WITH 1");
+            }
+            for (String importStatement : importStatements()) {
+                statement.execute(importStatement);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to reset the test data", e);
+        }
+    }
+
+    private static Set<String> tableNames(EntityManagerFactory entityManagerFactory) {
+        Set<String> tableNames = new TreeSet<>();
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+            tableNames.add(((AbstractEntityPersister) persister).getTableName());
+        }
+        return tableNames;
+    }
+
+    private static List<String> sequenceNames(Statement statement) throws SQLException {
+        List<String> sequenceNames = new ArrayList<>();
+        try (ResultSet sequences = statement.executeQuery(
+                "SELECT SEQUENCE_NAME FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_SCHEMA = 'PUBLIC'")) {
+            while (sequences.next()) {
+                sequenceNames.add(sequences.getString(1));
+            }
+        }
+        return sequenceNames;
+    }
+
+    // Same file as the one executed by hbm2ddl create
+    private static List<String> importStatements() {
+        List<String> importStatements = new ArrayList<>();
+        InputStream importSql = DatabaseReset.class.getResourceAsStream("/import.sql");
+        if (importSql == null) {
+            return importStatements;
+        }
+        try (Scanner scanner = new Scanner(importSql, StandardCharsets.UTF_8.name()).useDelimiter(";")) {
+            while (scanner.hasNext()) {
+                String importStatement = scanner.next().trim();
+                if (!importStatement.isEmpty()) {
+                    importStatements.add(importStatement);
+                }
+            }
+        }
+        return importStatements;
+    }
+
+}
@@ -26,11 +26,14 @@ import javax.persistence.spi.PersistenceProvider;
 import javax.persistence.spi.PersistenceUnitInfo;
 import javax.persistence.spi.PersistenceUnitTransactionType;
 import javax.sql.DataSource;
+import java.lang.reflect.Modifier;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.function.Supplier;
 
 import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toList;
@@ -40,14 +43,74 @@ public class HibernateEntityManagerBuilder {
     private HibernateEntityManagerBuilder() {}
 
     public static EntityManager anHibernateEntityManager(DataSource dataSource) {
+        return anHibernateEntityManagerFactory(dataSource).createEntityManager();
+    }
+
+    public static EntityManagerFactory anHibernateEntityManagerFactory(DataSource dataSource) {
         HibernateEntityManagerBuilder builder = new HibernateEntityManagerBuilder();
 
         builder.dataSource = dataSource;
         PersistenceProvider persistenceProvider = builder.persistenceProvider;
-        EntityManagerFactory entityManagerFactory = persistenceProvider.createContainerEntityManagerFactory(builder.persistenceUnitInfo
+        return persistenceProvider.createContainerEntityManagerFactory(builder.persistenceUnitInfo
                 , new HashMap<>());
+    }
+
+    /**
+     * Returns an entity manager of a factory shared by all the callers with the same
+     * persistence unit definition, that is to say the same managed classes and properties,
+     * and the same data source supplier class.
+     *
+     * The first call builds the factory on the data source supplied, which creates the
+     * schema and executes import.sql. The next calls skip the bootstrap: they truncate the
+     * tables, restart the sequences and execute import.sql again, so that each caller
+     * starts from the same data as with {@link #anHibernateEntityManager(DataSource)}.
+     *
+     * The supplier is only called by the first call, so its class stands for the data
+     * source in the cache key: a supplier capturing values, which could supply another
+     * data source with the same class, is rejected.
+     */
+    public static synchronized EntityManager aCachedHibernateEntityManager(Supplier<DataSource> dataSourceSupplier) {
+        Class<?> dataSourceSupplierClass = dataSourceSupplier.getClass();
+        if (Arrays.stream(dataSourceSupplierClass.getDeclaredFields())
+                  .anyMatch(field -> !Modifier.isStatic(field.getModifiers()))) {
+            throw new IllegalArgumentException("The data source supplier " + dataSourceSupplierClass.getName()
+                    + " captures values, the cached entity manager factory could be built on another data source");
+        }
+
+        HibernateEntityManagerBuilder builder = new HibernateEntityManagerBuilder();
+        PersistenceUnitInfo persistenceUnitInfo = builder.persistenceUnitInfo;
+        List<Object> persistenceUnitKey = Arrays.asList(persistenceUnitInfo.getManagedClassNames()
+                                                      , persistenceUnitInfo.getProperties()
+                                                      , dataSourceSupplierClass);
+
+        CachedEntityManagerFactory cached = CACHED_ENTITY_MANAGER_FACTORIES.get(persistenceUnitKey);
+        if (cached == null) {
+            builder.dataSource = dataSourceSupplier.get();
+            EntityManagerFactory entityManagerFactory = builder.persistenceProvider
+                    .createContainerEntityManagerFactory(persistenceUnitInfo, new HashMap<>());
+            CACHED_ENTITY_MANAGER_FACTORIES.put(persistenceUnitKey
+                    , new CachedEntityManagerFactory(entityManagerFactory, builder.dataSource));
+            return entityManagerFactory.createEntityManager();
+        }
+
+        cached.entityManagerFactory.getCache().evictAll();
+        DatabaseReset.resetData(cached.dataSource, cached.entityManagerFactory);
+        return cached.entityManagerFactory.createEntityManager();
+    }
+
+    private static final Map<List<Object>, CachedEntityManagerFactory> CACHED_ENTITY_MANAGER_FACTORIES = new HashMap<>();
+
+    private static class CachedEntityManagerFactory {
+
+        private final EntityManagerFactory entityManagerFactory;
+
+        private final DataSource dataSource;
+
+        private CachedEntityManagerFactory(EntityManagerFactory entityManagerFactory, DataSource dataSource) {
+            this.entityManagerFactory = entityManagerFactory;
+            this.dataSource = dataSource;
+        }
 
-        return entityManagerFactory.createEntityManager();
     }
 
     private final PersistenceProvider persistenceProvider = new HibernatePersistenceProvider();
@@ -0,0 +1,346 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package org.quickperf.sql.config;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.dbcp.DelegatingStatement;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Wraps the pool built by {@link TestDataSourceBuilder} to tell whether a test is bound
+ * by the pool. It records:
+ * <ul>
+ *     <li>the time waited to borrow a connection, as a histogram</li>
+ *     <li>the active and idle connection counts each time a connection is borrowed or returned</li>
+ *     <li>the time connections are held, per calling method</li>
+ *     <li>the prepared statement cache hits and misses</li>
+ * </ul>
+ * Use {@link ConnectionPoolAssert} to fail a test on excessive pool waits.
+ */
+public class InstrumentedDataSource implements DataSource {
+
+    /**
+     * Upper bounds of the borrow wait histogram buckets, the last bucket has no bound.
+     */
+    public static final List<Duration> BORROW_WAIT_BUCKET_BOUNDS = List.of(
+            Duration.ofNanos(10_000), Duration.ofNanos(100_000), Duration.ofMillis(1)
+          , Duration.ofMillis(10), Duration.ofMillis(100), Duration.ofSeconds(1));
+
+    static final int MAX_POOL_SAMPLES = 10_000;
+
+    // Frames of these packages are skipped when looking for the method holding a connection
+    private static final String[] INFRASTRUCTURE_PACKAGES = {
+            "java.", "javax.", "jdk.", "sun.", "com.sun.", "org.hibernate.", "org.apache.commons."
+          , "org.h2.", "net.ttddyy.", "org.quickperf.sql.config."
+    };
+
+    private final BasicDataSource pool;
+
+    private final AtomicLongArray borrowWaitCounts = new AtomicLongArray(BORROW_WAIT_BUCKET_BOUNDS.size() + 1);
+
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+
+    private final List<PoolSample> poolSamples = new ArrayList<>();
+
+    private final Map<String, HoldTimes> holdTimesByCaller = new ConcurrentHashMap<>();
+
+    private final LongAdder preparedStatementCacheHits = new LongAdder();
+
+    private final LongAdder preparedStatementCacheMisses = new LongAdder();
+
+    // Physical statements already handed out by the pool, a statement seen again is a cache hit
+    private final Set<Statement> preparedStatements = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+
+    InstrumentedDataSource(BasicDataSource pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long borrowStart = System.nanoTime();
+        Connection connection = pool.getConnection();
+        long borrowEnd = System.nanoTime();
+        recordBorrowWait(borrowEnd - borrowStart);
+        samplePool();
+        return instrument(connection, caller(), borrowEnd);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long borrowStart = System.nanoTime();
+        Connection connection = pool.getConnection(username, password);
+        long borrowEnd = System.nanoTime();
+        recordBorrowWait(borrowEnd - borrowStart);
+        samplePool();
+        return instrument(connection, caller(), borrowEnd);
+    }
+
+    private void recordBorrowWait(long waitNanos) {
+        int bucket = 0;
+        while (bucket < BORROW_WAIT_BUCKET_BOUNDS.size() && waitNanos > BORROW_WAIT_BUCKET_BOUNDS.get(bucket).toNanos()) {
+            bucket++;
+        }
+        borrowWaitCounts.incrementAndGet(bucket);
+        maxBorrowWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private void samplePool() {
+        synchronized (poolSamples) {
+            if (poolSamples.size() < MAX_POOL_SAMPLES) {
+                poolSamples.add(new PoolSample(System.nanoTime(), pool.getNumActive(), pool.getNumIdle()));
+            }
+        }
+    }
+
+    private static String caller() {
+        return StackWalker.getInstance()
+                          .walk(frames -> frames.filter(frame -> !isInfrastructure(frame.getClassName()))
+                                                .findFirst()
+                                                .map(frame -> frame.getClassName() + "." + frame.getMethodName())
+                                                .orElse("unknown"));
+    }
+
+    private static boolean isInfrastructure(String className) {
+        for (String infrastructurePackage : INFRASTRUCTURE_PACKAGES) {
+            if (className.startsWith(infrastructurePackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Connection instrument(Connection connection, String caller, long borrowEnd) {
+        InvocationHandler handler = new InvocationHandler() {
+
+            private boolean closed;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("close") && !closed) {
+                    closed = true;
+                    holdTimesByCaller.computeIfAbsent(caller, key -> new HoldTimes())
+                                     .record(System.nanoTime() - borrowEnd);
+                    Object result = invokeOnConnection(method, args);
+                    samplePool();
+                    return result;
+                }
+                Object result = invokeOnConnection(method, args);
+                if (method.getName().equals("prepareStatement") || method.getName().equals("prepareCall")) {
+                    recordPreparedStatement((Statement) result);
+                }
+                return result;
+            }
+
+            private Object invokeOnConnection(Method method, Object[] args) throws Throwable {
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+
+        };
+        return (Connection) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader()
+                , new Class<?>[] {Connection.class}, handler);
+    }
+
+    // Only known when the pool hands out statements wrapping the physical ones
+    private void recordPreparedStatement(Statement statement) {
+        if (!pool.isPoolPreparedStatements() || !(statement instanceof DelegatingStatement)) {
+            return;
+        }
+        Statement physicalStatement = ((DelegatingStatement) statement).getInnermostDelegate();
+        if (physicalStatement == null) {
+            return;
+        }
+        if (preparedStatements.add(physicalStatement)) {
+            preparedStatementCacheMisses.increment();
+        } else {
+            preparedStatementCacheHits.increment();
+        }
+    }
+
+    public long getBorrowCount() {
+        long borrowCount = 0;
+        for (int bucket = 0; bucket < borrowWaitCounts.length(); bucket++) {
+            borrowCount += borrowWaitCounts.get(bucket);
+        }
+        return borrowCount;
+    }
+
+    /**
+     * Number of borrows per wait time bucket, see {@link #BORROW_WAIT_BUCKET_BOUNDS}.
+     */
+    public long[] getBorrowWaitHistogram() {
+        long[] histogram = new long[borrowWaitCounts.length()];
+        for (int bucket = 0; bucket < histogram.length; bucket++) {
+            histogram[bucket] = borrowWaitCounts.get(bucket);
+        }
+        return histogram;
+    }
+
+    public Duration getMaxBorrowWait() {
+        return Duration.ofNanos(maxBorrowWaitNanos.get());
+    }
+
+    /**
+     * Active and idle connection counts after each borrow and each return, in time order.
+     * Only the first {@value #MAX_POOL_SAMPLES} samples are kept.
+     */
+    public List<PoolSample> getPoolSamples() {
+        synchronized (poolSamples) {
+            return new ArrayList<>(poolSamples);
+        }
+    }
+
+    public int getMaxActive() {
+        return getPoolSamples().stream().mapToInt(PoolSample::getActive).max().orElse(0);
+    }
+
+    /**
+     * Connection hold times keyed by the class and method that borrowed the connection.
+     */
+    public Map<String, HoldTimes> getHoldTimesByCaller() {
+        return Collections.unmodifiableMap(holdTimesByCaller);
+    }
+
+    public long getPreparedStatementCacheHits() {
+        return preparedStatementCacheHits.sum();
+    }
+
+    public long getPreparedStatementCacheMisses() {
+        return preparedStatementCacheMisses.sum();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return pool.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        pool.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        pool.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return pool.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return pool.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || pool.isWrapperFor(iface);
+    }
+
+    public static class PoolSample {
+
+        private final long nanoTime;
+
+        private final int active;
+
+        private final int idle;
+
+        PoolSample(long nanoTime, int active, int idle) {
+            this.nanoTime = nanoTime;
+            this.active = active;
+            this.idle = idle;
+        }
+
+        /**
+         * {@link System#nanoTime()} of the sample.
+         */
+        public long getNanoTime() {
+            return nanoTime;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+    }
+
+    public static class HoldTimes {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder totalNanos = new LongAdder();
+
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long holdNanos) {
+            count.increment();
+            totalNanos.add(holdNanos);
+            maxNanos.accumulateAndGet(holdNanos, Math::max);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public Duration getTotal() {
+            return Duration.ofNanos(totalNanos.sum());
+        }
+
+        public Duration getMax() {
+            return Duration.ofNanos(maxNanos.get());
+        }
+
+    }
+
+}
@@ -16,25 +16,61 @@ package org.quickperf.sql.config;
 import org.apache.commons.dbcp.BasicDataSource;
 
 import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class TestDataSourceBuilder {
 
+    private Path directory;
+
+    private int maxActive = 4;
+
     private TestDataSourceBuilder() { }
 
     public static TestDataSourceBuilder aDataSource() {
         return new TestDataSourceBuilder();
     }
 
+    /**
+     * Stores the database in files of the given directory instead of the heap, with a
+     * small page cache. Useful for tests with a limited heap size.
+     */
+    public TestDataSourceBuilder inDirectory(Path directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    /**
+     * Maximum number of connections borrowed at the same time, 4 by default.
+     */
+    public TestDataSourceBuilder withMaxActive(int maxActive) {
+        this.maxActive = maxActive;
+        return this;
+    }
+
     public DataSource build() {
+        return buildPool();
+    }
+
+    /**
+     * Builds the data source wrapped in a {@link InstrumentedDataSource}, recording how
+     * the pool is used.
+     */
+    public InstrumentedDataSource buildInstrumented() {
+        return new InstrumentedDataSource(buildPool());
+    }
+
+    private BasicDataSource buildPool() {
         int randomInt = Math.abs(ThreadLocalRandom.current().nextInt());
-        String url = "jdbc:h2:mem:test" + randomInt;
+        String url = directory == null
+                ? "jdbc:h2:mem:test" + randomInt
+                : "jdbc:h2:file:" + directory.resolve("test" + randomInt).toAbsolutePath() + ";CACHE_SIZE=2048;LAZY_QUERY_EXECUTION=TRUE";
         BasicDataSource dataSource = new BasicDataSource();
         dataSource.setDriverClassName("org.h2.Driver");
         dataSource.setUrl(url);
         dataSource.setUsername("qp");
         dataSource.setPassword("");
-        dataSource.setMaxActive(4);
+        dataSource.setMaxActive(maxActive);
         dataSource.setPoolPreparedStatements(true);
         return dataSource;
     }
@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package org.quickperf.sql.config;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public class TestPlayers {
+
+    /**
+     * Id of the first inserted player, after the ids used by import.sql.
+     */
+    public static final int FIRST_PLAYER_ID = 1000;
+
+    private TestPlayers() {}
+
+    /**
+     * Inserts players with one statement, with ids from {@link #FIRST_PLAYER_ID},
+     * split between the two teams of import.sql.
+     */
+    public static void insertPlayers(DataSource dataSource, int playerCount) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO PLAYER (id, firstName, lastName, team_id)"
+                   + " SELECT X, CONCAT('firstName', X), CONCAT('lastName', X), MOD(X, 2) + 1"
+                   + " FROM SYSTEM_RANGE(?, ?)")) {
+            insert.setInt(1, FIRST_PLAYER_ID);
+            insert.setInt(2, FIRST_PLAYER_ID + playerCount - 1);
+            insert.executeUpdate();
+        }
+    }
+
+}
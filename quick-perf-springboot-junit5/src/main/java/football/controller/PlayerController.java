@@ -13,10 +13,19 @@
 
 package football.controller;
 
+import football.dto.PlayerChanges;
 import football.dto.PlayerWithTeamName;
 import football.service.PlayerService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -32,4 +41,28 @@ public class PlayerController {
         return playerService.findPlayersWithTeamName();
     }
 
+    @GetMapping("/players/changes")
+    public PlayerChanges findChanges(@RequestParam(defaultValue = "0") long since) {
+        return playerService.findPlayerChangesSince(since);
+    }
+
+    @DeleteMapping("/players/{id}")
+    public ResponseEntity<Void> delete(@PathVariable("id") Long id) {
+        if (playerService.deletePlayer(id)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/teams/{fromTeamId}/players/transfer")
+    public int transferAll(@PathVariable("fromTeamId") Long fromTeamId, @RequestParam Long toTeamId) {
+        return playerService.moveAllPlayers(fromTeamId, toTeamId);
+    }
+
+    // The request deadline has passed or the client has disconnected
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<Void> onQueryTimeout() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
 }
@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.deadline;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time after which the work done for an HTTP request is no longer useful,
+ * because the client gave up or disconnected.
+ *
+ * The JDBC statements created while the deadline is bound to the current thread get a
+ * query timeout and are registered, so that {@link #cancel()} can stop them and give
+ * their connection back to the pool.
+ */
+public class RequestDeadline implements AutoCloseable {
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean cancelled;
+
+    private volatile ScheduledFuture<?> expiration;
+
+    RequestDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    void bindToCurrentThread() {
+        CURRENT.set(this);
+    }
+
+    void unbindFromCurrentThread() {
+        CURRENT.remove();
+    }
+
+    void expireWith(ScheduledFuture<?> expiration) {
+        this.expiration = expiration;
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    void checkNotExceeded() throws SQLTimeoutException {
+        if (cancelled || remainingMillis() <= 0) {
+            throw new SQLTimeoutException("Request deadline exceeded or client disconnected");
+        }
+    }
+
+    void register(Statement statement) throws SQLException {
+        checkNotExceeded();
+        // JDBC query timeouts are in seconds, the cancellation makes them precise
+        long remainingSeconds = TimeUnit.MILLISECONDS.toSeconds(remainingMillis() + 999);
+        statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, remainingSeconds));
+        statements.add(statement);
+        if (cancelled) {
+            cancelQuietly(statement);
+        }
+    }
+
+    /**
+     * Cancels the in-flight statements. The statements created afterwards are
+     * rejected.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (Statement statement : statements) {
+            cancelQuietly(statement);
+        }
+    }
+
+    private static void cancelQuietly(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException | RuntimeException e) {
+            // The statement may have already been closed
+        }
+    }
+
+    @Override
+    public void close() {
+        ScheduledFuture<?> expiration = this.expiration;
+        if (expiration != null) {
+            expiration.cancel(false);
+        }
+        statements.clear();
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+}
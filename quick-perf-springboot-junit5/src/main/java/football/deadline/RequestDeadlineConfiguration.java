@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.deadline;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Callable;
+
+@Configuration
+public class RequestDeadlineConfiguration implements WebMvcConfigurer {
+
+    @Bean
+    public static BeanPostProcessor requestDeadlineDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource && !(bean instanceof RequestDeadlineDataSource)) {
+                    return new RequestDeadlineDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Binds the request deadline to the thread executing an asynchronous controller method
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+
+            @Override
+            public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+                RequestDeadline deadline = deadlineOf(request);
+                if (deadline != null) {
+                    deadline.bindToCurrentThread();
+                }
+            }
+
+            @Override
+            public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+                RequestDeadline deadline = deadlineOf(request);
+                if (deadline != null) {
+                    deadline.unbindFromCurrentThread();
+                }
+            }
+
+        });
+    }
+
+    private static RequestDeadline deadlineOf(NativeWebRequest request) {
+        return (RequestDeadline) request.getAttribute(RequestDeadlineFilter.DEADLINE_ATTRIBUTE
+                                                    , RequestAttributes.SCOPE_REQUEST);
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.deadline;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Hands out connections whose statements are bound to the {@link RequestDeadline} of
+ * the current thread, if any.
+ */
+public class RequestDeadlineDataSource extends DelegatingDataSource {
+
+    public RequestDeadlineDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return deadlineAware(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return deadlineAware(super.getConnection(username, password));
+    }
+
+    private Connection deadlineAware(Connection connection) throws SQLException {
+
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline == null) {
+            return connection;
+        }
+
+        // Waiting for a pooled connection may have consumed the remaining time
+        try {
+            deadline.checkNotExceeded();
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader()
+                , new Class<?>[]{Connection.class}
+                , (proxy, method, args) -> {
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                    if (result instanceof Statement) {
+                        deadline.register((Statement) result);
+                    }
+                    return result;
+                });
+
+    }
+
+}
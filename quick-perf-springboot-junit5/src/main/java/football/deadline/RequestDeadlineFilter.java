@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.deadline;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Gives each request a {@link RequestDeadline}, from the X-Request-Timeout header (in
+ * milliseconds) or from the football.request.default-timeout-ms property, which also
+ * caps the header value.
+ *
+ * For asynchronous requests, the statements are also cancelled when the container
+ * reports an error on the connection, for example because the client disconnected.
+ */
+@Component
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    static final String DEADLINE_ATTRIBUTE = RequestDeadline.class.getName();
+
+    private final RequestDeadlines requestDeadlines;
+
+    private final long defaultTimeoutMillis;
+
+    public RequestDeadlineFilter(RequestDeadlines requestDeadlines
+                               , @Value("${football.request.default-timeout-ms:30000}") long defaultTimeoutMillis) {
+        this.requestDeadlines = requestDeadlines;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        long timeoutMillis;
+        try {
+            timeoutMillis = timeoutMillis(request);
+        } catch (NumberFormatException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + TIMEOUT_HEADER + " header");
+            return;
+        }
+
+        RequestDeadline deadline = requestDeadlines.start(Duration.ofMillis(timeoutMillis));
+        request.setAttribute(DEADLINE_ATTRIBUTE, deadline);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            deadline.unbindFromCurrentThread();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new DeadlineAsyncListener(deadline));
+            } else {
+                deadline.close();
+            }
+        }
+
+    }
+
+    private long timeoutMillis(HttpServletRequest request) {
+        String timeoutHeader = request.getHeader(TIMEOUT_HEADER);
+        if (timeoutHeader == null) {
+            return defaultTimeoutMillis;
+        }
+        long timeoutMillis = Long.parseLong(timeoutHeader.trim());
+        if (timeoutMillis <= 0) {
+            throw new NumberFormatException(timeoutHeader);
+        }
+        return Math.min(timeoutMillis, defaultTimeoutMillis);
+    }
+
+    private static class DeadlineAsyncListener implements AsyncListener {
+
+        private final RequestDeadline deadline;
+
+        DeadlineAsyncListener(RequestDeadline deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            deadline.close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            deadline.cancel();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            deadline.cancel();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+    }
+
+}
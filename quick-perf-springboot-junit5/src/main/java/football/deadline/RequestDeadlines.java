@@ -0,0 +1,50 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.deadline;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts request deadlines and cancels their statements once they have expired.
+ */
+@Component
+public class RequestDeadlines implements DisposableBean {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "request-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Starts a deadline and binds it to the current thread until it is closed.
+     */
+    public RequestDeadline start(Duration timeout) {
+        RequestDeadline deadline = new RequestDeadline(System.nanoTime() + timeout.toNanos());
+        deadline.expireWith(scheduler.schedule(deadline::cancel, timeout.toMillis(), TimeUnit.MILLISECONDS));
+        deadline.bindToCurrentThread();
+        return deadline;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package football.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Players inserted, updated or deleted after a given version, together with the version
+ * to send on the next sync.
+ */
+public class PlayerChanges implements Serializable {
+
+    private List<PlayerChange> upserts;
+
+    private List<Long> deletes;
+
+    private long version;
+
+    // For Jackson
+    public PlayerChanges() { }
+
+    public PlayerChanges(List<PlayerChange> upserts, List<Long> deletes, long version) {
+        this.upserts = upserts;
+        this.deletes = deletes;
+        this.version = version;
+    }
+
+    public List<PlayerChange> getUpserts() {
+        return upserts;
+    }
+
+    public List<Long> getDeletes() {
+        return deletes;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+}
@@ -0,0 +1,25 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.entity;
+
+/**
+ * Entity carrying the version of its last change, so that clients mirroring the data
+ * can ask for what changed since the version they have already seen.
+ */
+public interface ChangeTracked {
+
+    Long getChangeVersion();
+
+    void setChangeVersion(Long changeVersion);
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.entity;
+
+import football.repository.ChangeVersionCounter;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+import javax.sql.DataSource;
+
+/**
+ * Stamps each inserted or updated {@link ChangeTracked} entity with the change version
+ * of the current transaction.
+ *
+ * The listener is instantiated by Spring through Hibernate's bean container.
+ */
+public class ChangeVersionListener {
+
+    private final ChangeVersionCounter changeVersionCounter;
+
+    public ChangeVersionListener(DataSource dataSource) {
+        this.changeVersionCounter = new ChangeVersionCounter(dataSource);
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void stampChangeVersion(ChangeTracked entity) {
+        entity.setChangeVersion(changeVersionCounter.transactionChangeVersion());
+    }
+
+}
@@ -16,7 +16,9 @@ import jakarta.persistence.*;
 import java.io.Serializable;
 
 @Entity
-public class Player implements Serializable {
+@EntityListeners(ChangeVersionListener.class)
+@Table(indexes = @Index(name = "IDX_PLAYER_CHANGE_VERSION", columnList = "changeVersion"))
+public class Player implements Serializable, ChangeTracked {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -30,6 +32,8 @@ public class Player implements Serializable {
     @JoinColumn(name = "team_id")
     private Team team;
 
+    private Long changeVersion;
+
     public Long getId() {
         return id;
     }
@@ -62,4 +66,14 @@ public class Player implements Serializable {
         this.team = team;
     }
 
+    @Override
+    public Long getChangeVersion() {
+        return changeVersion;
+    }
+
+    @Override
+    public void setChangeVersion(Long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+
 }
@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Remembers a deleted player so that the deletion can be replayed by clients syncing
+ * from a version older than the deletion.
+ */
+@Entity
+@EntityListeners(ChangeVersionListener.class)
+@Table(indexes = @Index(name = "IDX_PLAYER_TOMBSTONE_CHANGE_VERSION", columnList = "changeVersion"))
+public class PlayerTombstone implements Serializable, ChangeTracked {
+
+    @Id
+    private Long playerId;
+
+    private Long changeVersion;
+
+    // For JPA
+    protected PlayerTombstone() { }
+
+    public PlayerTombstone(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    @Override
+    public Long getChangeVersion() {
+        return changeVersion;
+    }
+
+    @Override
+    public void setChangeVersion(Long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+
+}
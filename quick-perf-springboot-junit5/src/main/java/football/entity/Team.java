@@ -13,13 +13,18 @@
 package football.entity;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import java.io.Serializable;
 
 @Entity
-public class Team implements Serializable {
+@EntityListeners(ChangeVersionListener.class)
+@Table(indexes = @Index(name = "IDX_TEAM_CHANGE_VERSION", columnList = "changeVersion"))
+public class Team implements Serializable, ChangeTracked {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -27,6 +32,8 @@ public class Team implements Serializable {
 
     private String name;
 
+    private Long changeVersion;
+
     public Long getId() {
         return id;
     }
@@ -43,4 +50,14 @@ public class Team implements Serializable {
         this.name = name;
     }
 
+    @Override
+    public Long getChangeVersion() {
+        return changeVersion;
+    }
+
+    @Override
+    public void setChangeVersion(Long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+
 }
@@ -0,0 +1,184 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.logging;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes access and SQL log lines from a background thread.
+ *
+ * Request threads copy the values to log into pre-allocated ring buffer events, and a
+ * single consumer formats and writes them, flushing at the end of each batch. When the
+ * ring buffer is full, the {@link OverflowPolicy} decides whether events are dropped or
+ * whether the request thread waits.
+ */
+public class AsyncLogPipeline implements AutoCloseable {
+
+    static final int MAX_TEXT_LENGTH = 4096;
+
+    private final Disruptor<LogEvent> disruptor;
+
+    private final RingBuffer<LogEvent> ringBuffer;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final Writer writer;
+
+    private final WritingHandler writingHandler = new WritingHandler();
+
+    private final LongAdder publishedCount = new LongAdder();
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private final LongAdder blockedCount = new LongAdder();
+
+    private final LongAdder writeErrorCount = new LongAdder();
+
+    public AsyncLogPipeline(Writer writer, int ringBufferSize, OverflowPolicy overflowPolicy) {
+        this.writer = writer;
+        this.overflowPolicy = overflowPolicy;
+        this.disruptor = new Disruptor<>(LogEvent::new
+                                       , ringBufferSize
+                                       , runnable -> {
+                                             Thread thread = new Thread(runnable, "async-log-pipeline");
+                                             thread.setDaemon(true);
+                                             return thread;
+                                         }
+                                       , ProducerType.MULTI
+                                       , new BlockingWaitStrategy());
+        this.disruptor.handleEventsWith(writingHandler);
+        this.ringBuffer = disruptor.start();
+    }
+
+    public void logAccess(CharSequence method, CharSequence uri, int status, long durationMicros) {
+        long sequence = claim();
+        if (sequence < 0) {
+            return;
+        }
+        try {
+            LogEvent event = ringBuffer.get(sequence);
+            event.type = LogEvent.Type.ACCESS;
+            event.timestampMillis = System.currentTimeMillis();
+            event.setMethod(method);
+            event.setText(uri, MAX_TEXT_LENGTH);
+            event.status = status;
+            event.durationMicros = durationMicros;
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    public void logSql(CharSequence sql) {
+        long sequence = claim();
+        if (sequence < 0) {
+            return;
+        }
+        try {
+            LogEvent event = ringBuffer.get(sequence);
+            event.type = LogEvent.Type.SQL;
+            event.timestampMillis = System.currentTimeMillis();
+            event.setText(sql, MAX_TEXT_LENGTH);
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    private long claim() {
+        try {
+            long sequence = ringBuffer.tryNext();
+            publishedCount.increment();
+            return sequence;
+        } catch (InsufficientCapacityException e) {
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                droppedCount.increment();
+                return -1;
+            }
+            blockedCount.increment();
+            long sequence = ringBuffer.next();
+            publishedCount.increment();
+            return sequence;
+        }
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /** Number of events whose publication had to wait for a free slot. */
+    public long getBlockedCount() {
+        return blockedCount.sum();
+    }
+
+    public long getWriteErrorCount() {
+        return writeErrorCount.sum();
+    }
+
+    /**
+     * Writes the pending events (for at most 5 seconds), then closes the writer.
+     */
+    @Override
+    public void close() throws IOException {
+        // Disruptor#shutdown() does not wait for a consumer thread that is not yet running
+        long lastPublished = ringBuffer.getCursor();
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (disruptor.getSequenceValueFor(writingHandler) < lastPublished
+                && System.nanoTime() < drainDeadline) {
+            Thread.onSpinWait();
+        }
+        disruptor.halt();
+        writer.close();
+    }
+
+    private class WritingHandler implements EventHandler<LogEvent> {
+
+        private final LogEventLayout layout = new LogEventLayout();
+
+        private final StringBuilder line = new StringBuilder(512);
+
+        private char[] chars = new char[512];
+
+        @Override
+        public void onEvent(LogEvent event, long sequence, boolean endOfBatch) {
+            layout.format(event, line);
+            int length = line.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            line.getChars(0, length, chars, 0);
+            try {
+                writer.write(chars, 0, length);
+                if (endOfBatch) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                writeErrorCount.increment();
+            }
+        }
+
+    }
+
+}
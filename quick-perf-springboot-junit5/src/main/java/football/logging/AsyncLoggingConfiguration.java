@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.logging;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Access and SQL logs written by an {@link AsyncLogPipeline}, enabled with
+ * football.logging.async.enabled=true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "football.logging.async.enabled", havingValue = "true")
+public class AsyncLoggingConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public AsyncLogPipeline asyncLogPipeline(@Value("${football.logging.async.file:}") String file
+                                           , @Value("${football.logging.async.ring-buffer-size:4096}") int ringBufferSize
+                                           , @Value("${football.logging.async.overflow-policy:DROP}") OverflowPolicy overflowPolicy)
+            throws IOException {
+        return new AsyncLogPipeline(writer(file), ringBufferSize, overflowPolicy);
+    }
+
+    private static Writer writer(String file) throws IOException {
+        OutputStream outputStream = file.isEmpty() ? notClosing(System.out) : new FileOutputStream(file, true);
+        return new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    private static OutputStream notClosing(OutputStream outputStream) {
+        return new FilterOutputStream(outputStream) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<AccessLogFilter> accessLogFilter(AsyncLogPipeline asyncLogPipeline) {
+        FilterRegistrationBean<AccessLogFilter> registration = new FilterRegistrationBean<>(new AccessLogFilter(asyncLogPipeline));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlLogStatementInspector(AsyncLogPipeline asyncLogPipeline) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR
+                                                            , new SqlLogStatementInspector(asyncLogPipeline));
+    }
+
+}
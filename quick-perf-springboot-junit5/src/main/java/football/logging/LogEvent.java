@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.logging;
+
+/**
+ * Pre-allocated and reused slot of the ring buffer. The text fields are copied into
+ * builders that keep their capacity, so publishing an event does not allocate.
+ */
+final class LogEvent {
+
+    enum Type { ACCESS, SQL }
+
+    Type type;
+
+    long timestampMillis;
+
+    final StringBuilder method = new StringBuilder(8);
+
+    // Request URI or SQL statement
+    final StringBuilder text = new StringBuilder(256);
+
+    int status;
+
+    long durationMicros;
+
+    void setText(CharSequence value, int maxLength) {
+        text.setLength(0);
+        int length = Math.min(value.length(), maxLength);
+        text.append(value, 0, length);
+    }
+
+    void setMethod(CharSequence value) {
+        method.setLength(0);
+        method.append(value);
+    }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.logging;
+
+/**
+ * Formats events into a reused line buffer, one event per line:
+ * <pre>
+ * ACCESS &lt;epoch millis&gt; &lt;method&gt; &lt;uri&gt; &lt;status&gt; &lt;duration&gt;us
+ * SQL &lt;epoch millis&gt; &lt;statement&gt;
+ * </pre>
+ */
+final class LogEventLayout {
+
+    void format(LogEvent event, StringBuilder line) {
+        line.setLength(0);
+        line.append(event.type == LogEvent.Type.ACCESS ? "ACCESS " : "SQL ")
+            .append(event.timestampMillis)
+            .append(' ');
+        if (event.type == LogEvent.Type.ACCESS) {
+            line.append(event.method)
+                .append(' ')
+                .append(event.text)
+                .append(' ')
+                .append(event.status)
+                .append(' ')
+                .append(event.durationMicros)
+                .append("us");
+        } else {
+            line.append(event.text);
+        }
+        line.append('\n');
+    }
+
+}
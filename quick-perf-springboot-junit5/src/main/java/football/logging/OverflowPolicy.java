@@ -0,0 +1,26 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.logging;
+
+/**
+ * What to do when the ring buffer of an {@link AsyncLogPipeline} is full.
+ */
+public enum OverflowPolicy {
+
+    /** The event is discarded and counted, the request thread never waits. */
+    DROP,
+
+    /** The request thread waits for a free slot, no event is lost. */
+    BLOCK
+
+}
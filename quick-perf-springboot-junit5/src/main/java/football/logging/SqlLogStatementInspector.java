@@ -0,0 +1,34 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.logging;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hands each SQL statement prepared by Hibernate to the {@link AsyncLogPipeline}.
+ */
+public class SqlLogStatementInspector implements StatementInspector {
+
+    private final AsyncLogPipeline logPipeline;
+
+    public SqlLogStatementInspector(AsyncLogPipeline logPipeline) {
+        this.logPipeline = logPipeline;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        logPipeline.logSql(sql);
+        return sql;
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Gives the change version of the current transaction, incremented in the one-row
+ * CHANGE_VERSION table (created by schema.sql).
+ *
+ * All the rows written by a transaction share the same version, so the counter is
+ * incremented once per transaction and not once per row.
+ *
+ * The increment locks the counter row until the transaction ends: another transaction
+ * taking a change version waits for it. Change versions are therefore committed in
+ * increasing order, and a sync returning the highest committed version as its mark
+ * cannot miss a smaller version committed later. The price is that the writes of
+ * change-tracked entities are serialized, from their flush to their commit.
+ */
+public class ChangeVersionCounter {
+
+    private static final String NEXT_CHANGE_VERSION =
+            "SELECT VERSION FROM FINAL TABLE (UPDATE CHANGE_VERSION SET VERSION = VERSION + ?)";
+
+    private static final long INCREMENT = 1L;
+
+    private static final Object TRANSACTION_CHANGE_VERSION_KEY = new Object();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ChangeVersionCounter(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public Long transactionChangeVersion() {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return nextChangeVersion();
+        }
+
+        Long changeVersion = (Long) TransactionSynchronizationManager.getResource(TRANSACTION_CHANGE_VERSION_KEY);
+        if (changeVersion == null) {
+            changeVersion = nextChangeVersion();
+            TransactionSynchronizationManager.bindResource(TRANSACTION_CHANGE_VERSION_KEY, changeVersion);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_CHANGE_VERSION_KEY);
+                }
+            });
+        }
+        return changeVersion;
+
+    }
+
+    private Long nextChangeVersion() {
+        return jdbcTemplate.queryForObject(NEXT_CHANGE_VERSION, Long.class, INCREMENT);
+    }
+
+}
@@ -12,17 +12,38 @@
  */
 package football.repository;
 
+import football.dto.PlayerChange;
 import football.entity.Player;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface PlayerRepository extends JpaRepository<Player, Long> {
+public interface PlayerRepository extends JpaRepository<Player, Long>, PlayerTransferRepository {
 
 //    @EntityGraph(attributePaths = "team")
     List<Player> findAll();
 
+    @Query("SELECT new football.dto.PlayerChange(p.id, p.firstName, p.lastName, t.name)"
+         + " FROM Player p LEFT JOIN p.team t")
+    List<PlayerChange> findAllPlayerChanges();
+
+    @Query("SELECT new football.dto.PlayerChange(p.id, p.firstName, p.lastName, t.name)"
+         + " FROM Player p LEFT JOIN p.team t"
+         + " WHERE p.changeVersion > :since AND p.changeVersion <= :until")
+    List<PlayerChange> findPlayerChangesBetween(@Param("since") long since, @Param("until") long until);
+
+    // A renamed team changes the team name of all its players
+    @Query("SELECT new football.dto.PlayerChange(p.id, p.firstName, p.lastName, t.name)"
+         + " FROM Player p JOIN p.team t"
+         + " WHERE t.changeVersion > :since AND t.changeVersion <= :until")
+    List<PlayerChange> findPlayerChangesFromTeamsChangedBetween(@Param("since") long since, @Param("until") long until);
+
+    @Query("SELECT COALESCE(MAX(p.changeVersion), 0) FROM Player p")
+    long findLastChangeVersion();
+
 }
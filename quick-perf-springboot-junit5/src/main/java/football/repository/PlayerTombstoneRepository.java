@@ -0,0 +1,33 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.repository;
+
+import football.entity.PlayerTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PlayerTombstoneRepository extends JpaRepository<PlayerTombstone, Long> {
+
+    @Query("SELECT t.playerId FROM PlayerTombstone t"
+         + " WHERE t.changeVersion > :since AND t.changeVersion <= :until")
+    List<Long> findDeletedPlayerIdsBetween(@Param("since") long since, @Param("until") long until);
+
+    @Query("SELECT COALESCE(MAX(t.changeVersion), 0) FROM PlayerTombstone t")
+    long findLastChangeVersion();
+
+}
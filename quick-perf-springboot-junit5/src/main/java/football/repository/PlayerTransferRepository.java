@@ -0,0 +1,28 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.repository;
+
+public interface PlayerTransferRepository {
+
+    /**
+     * Moves all the players of a team to another team with one set-based UPDATE.
+     *
+     * Pending changes are flushed before the update. The persistence context is then
+     * cleared and the Player second-level cache region evicted, so that no stale team
+     * is read afterwards.
+     *
+     * @return the number of moved players
+     */
+    int moveAllPlayers(Long fromTeamId, Long toTeamId);
+
+}
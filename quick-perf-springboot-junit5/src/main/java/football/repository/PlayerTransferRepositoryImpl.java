@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+package football.repository;
+
+import football.entity.Player;
+import football.entity.Team;
+import jakarta.persistence.EntityManager;
+
+import javax.sql.DataSource;
+
+class PlayerTransferRepositoryImpl implements PlayerTransferRepository {
+
+    private final EntityManager entityManager;
+
+    private final ChangeVersionCounter changeVersionCounter;
+
+    PlayerTransferRepositoryImpl(EntityManager entityManager, DataSource dataSource) {
+        this.entityManager = entityManager;
+        this.changeVersionCounter = new ChangeVersionCounter(dataSource);
+    }
+
+    @Override
+    public int moveAllPlayers(Long fromTeamId, Long toTeamId) {
+
+        entityManager.flush();
+
+        // Entity listeners are not called by bulk updates
+        int movedPlayerCount = entityManager
+                .createQuery("UPDATE Player p SET p.team = :toTeam, p.changeVersion = :changeVersion"
+                           + " WHERE p.team.id = :fromTeamId")
+                .setParameter("toTeam", entityManager.getReference(Team.class, toTeamId))
+                .setParameter("changeVersion", changeVersionCounter.transactionChangeVersion())
+                .setParameter("fromTeamId", fromTeamId)
+                .executeUpdate();
+
+        entityManager.clear();
+        entityManager.getEntityManagerFactory().getCache().evict(Player.class);
+
+        return movedPlayerCount;
+
+    }
+
+}
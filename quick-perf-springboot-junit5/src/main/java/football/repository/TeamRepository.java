@@ -14,8 +14,13 @@ package football.repository;
 
 import football.entity.Team;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    @Query("SELECT COALESCE(MAX(t.changeVersion), 0) FROM Team t")
+    long findLastChangeVersion();
+
 }
@@ -12,13 +12,22 @@
  */
 package football.service;
 
+import football.dto.PlayerChange;
+import football.dto.PlayerChanges;
 import football.dto.PlayerWithTeamName;
 import football.entity.Player;
+import football.entity.PlayerTombstone;
 import football.repository.PlayerRepository;
+import football.repository.PlayerTombstoneRepository;
+import football.repository.TeamRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,8 +35,16 @@ public class PlayerService {
 
     private PlayerRepository playerRepository;
 
-    public PlayerService(PlayerRepository playerRepository) {
+    private TeamRepository teamRepository;
+
+    private PlayerTombstoneRepository playerTombstoneRepository;
+
+    public PlayerService(PlayerRepository playerRepository
+                       , TeamRepository teamRepository
+                       , PlayerTombstoneRepository playerTombstoneRepository) {
         this.playerRepository = playerRepository;
+        this.teamRepository = teamRepository;
+        this.playerTombstoneRepository = playerTombstoneRepository;
     }
 
     @Transactional(readOnly = true)
@@ -44,4 +61,54 @@ public class PlayerService {
                .collect(Collectors.toList());
     }
 
+    /*
+    Only the rows stamped with a change version in ]since, version] are read, so the
+    cost of a sync depends on the number of changes and not on the size of the tables.
+    A since value of 0 (or less) asks for a full snapshot.
+    */
+    @Transactional(readOnly = true)
+    public PlayerChanges findPlayerChangesSince(long since) {
+
+        long version = Math.max(since, lastChangeVersion());
+
+        if (since <= 0) {
+            return new PlayerChanges(playerRepository.findAllPlayerChanges(), Collections.emptyList(), version);
+        }
+
+        Map<Long, PlayerChange> upsertsById = new LinkedHashMap<>();
+        for (PlayerChange change : playerRepository.findPlayerChangesBetween(since, version)) {
+            upsertsById.put(change.getId(), change);
+        }
+        for (PlayerChange change : playerRepository.findPlayerChangesFromTeamsChangedBetween(since, version)) {
+            upsertsById.putIfAbsent(change.getId(), change);
+        }
+
+        List<Long> deletes = playerTombstoneRepository.findDeletedPlayerIdsBetween(since, version);
+
+        return new PlayerChanges(new ArrayList<>(upsertsById.values()), deletes, version);
+
+    }
+
+    @Transactional
+    public boolean deletePlayer(Long id) {
+        return playerRepository.findById(id)
+                               .map(player -> {
+                                   playerRepository.delete(player);
+                                   playerTombstoneRepository.save(new PlayerTombstone(id));
+                                   return true;
+                               })
+                               .orElse(false);
+    }
+
+    @Transactional
+    public int moveAllPlayers(Long fromTeamId, Long toTeamId) {
+        return playerRepository.moveAllPlayers(fromTeamId, toTeamId);
+    }
+
+    private long lastChangeVersion() {
+        return Math.max(playerRepository.findLastChangeVersion()
+                      , Math.max(teamRepository.findLastChangeVersion()
+                               , playerTombstoneRepository.findLastChangeVersion()));
+    }
+
 }
@@ -0,0 +1,3 @@
+-- Last change version stamped by football.entity.ChangeVersionListener, see football.repository.ChangeVersionCounter
+CREATE TABLE IF NOT EXISTS CHANGE_VERSION (VERSION BIGINT NOT NULL);
+INSERT INTO CHANGE_VERSION (VERSION) SELECT 0 FROM DUAL WHERE NOT EXISTS (SELECT * FROM CHANGE_VERSION);
@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package football.deadline;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class RequestDeadlineTest {
+
+    // About 5 seconds without cancellation
+    private static final String SLOW_QUERY = "SELECT SLOWLY(X) FROM SYSTEM_RANGE(1, 5000)";
+
+    @Autowired
+    private RequestDeadlines requestDeadlines;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void createSlowFunction() {
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS SLOWLY FOR 'football.deadline.SlowFunctions.slowly'");
+    }
+
+    @Test
+    void should_cancel_a_slow_query_and_release_its_connection_when_the_deadline_has_passed() throws SQLException {
+
+        long start = System.nanoTime();
+
+        try (RequestDeadline deadline = requestDeadlines.start(Duration.ofMillis(200))) {
+            assertThatThrownBy(() -> jdbcTemplate.queryForList(SLOW_QUERY, Integer.class))
+                    .isInstanceOf(DataAccessException.class);
+            assertThat(deadline.isCancelled()).isTrue();
+        }
+
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        assertThat(elapsedMillis).isLessThan(2_000);
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        assertThat(pool.getHikariPoolMXBean().getActiveConnections()).isZero();
+
+    }
+
+    @Test
+    void should_refuse_a_connection_once_the_deadline_has_passed() {
+
+        try (RequestDeadline deadline = requestDeadlines.start(Duration.ofMillis(200))) {
+            deadline.cancel();
+            assertThatThrownBy(() -> jdbcTemplate.queryForList("SELECT 1", Integer.class))
+                    .isInstanceOf(DataAccessException.class);
+        }
+
+    }
+
+    @Test
+    void should_reject_an_invalid_timeout_header() throws Exception {
+        mockMvc.perform(get("/players").header(RequestDeadlineFilter.TIMEOUT_HEADER, "soon"))
+               .andExpect(status().isBadRequest());
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package football.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsyncLogPipelineTest {
+
+    @Test
+    public void should_write_access_and_sql_lines() throws IOException {
+
+        StringWriter output = new StringWriter();
+
+        try (AsyncLogPipeline pipeline = new AsyncLogPipeline(output, 64, OverflowPolicy.BLOCK)) {
+            pipeline.logAccess("GET", "/players", 200, 1234);
+            pipeline.logSql("select p1_0.id from Player p1_0");
+        }
+
+        assertThat(output.toString())
+                .containsPattern("ACCESS \\d+ GET /players 200 1234us\n")
+                .containsPattern("SQL \\d+ select p1_0.id from Player p1_0\n");
+
+    }
+
+    @Test
+    public void should_drop_and_count_the_events_when_the_ring_buffer_is_full() throws IOException {
+
+        CountDownLatch writerReleased = new CountDownLatch(1);
+        AsyncLogPipeline pipeline = new AsyncLogPipeline(new BlockedWriter(writerReleased), 8, OverflowPolicy.DROP);
+
+        for (int i = 0; i < 100; i++) {
+            pipeline.logSql("select 1");
+        }
+
+        assertThat(pipeline.getDroppedCount()).isPositive();
+        assertThat(pipeline.getPublishedCount() + pipeline.getDroppedCount()).isEqualTo(100);
+        assertThat(pipeline.getBlockedCount()).isZero();
+
+        writerReleased.countDown();
+        pipeline.close();
+
+    }
+
+    @Test
+    public void should_not_lose_events_with_the_block_policy() throws IOException {
+
+        StringWriter output = new StringWriter();
+
+        try (AsyncLogPipeline pipeline = new AsyncLogPipeline(output, 8, OverflowPolicy.BLOCK)) {
+            for (int i = 0; i < 1_000; i++) {
+                pipeline.logSql("select 1");
+            }
+            assertThat(pipeline.getDroppedCount()).isZero();
+            assertThat(pipeline.getPublishedCount()).isEqualTo(1_000);
+        }
+
+        assertThat(output.toString().split("\n")).hasSize(1_000);
+
+    }
+
+    @Test
+    public void should_not_allocate_on_the_request_thread_once_warmed_up() throws IOException {
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        StringBuilder uri = new StringBuilder("/players");
+
+        try (AsyncLogPipeline pipeline = new AsyncLogPipeline(Writer.nullWriter(), 1024, OverflowPolicy.BLOCK)) {
+
+            for (int i = 0; i < 100_000; i++) {
+                pipeline.logAccess("GET", uri, 200, i);
+            }
+
+            long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < 100_000; i++) {
+                pipeline.logAccess("GET", uri, 200, i);
+            }
+            long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+            // Far less than one byte per event
+            assertThat(allocatedBytes).isLessThan(10_000);
+
+        }
+
+    }
+
+    private static class BlockedWriter extends Writer {
+
+        private final CountDownLatch released;
+
+        BlockedWriter(CountDownLatch released) {
+            this.released = released;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void flush() { }
+
+        @Override
+        public void close() { }
+
+    }
+
+}
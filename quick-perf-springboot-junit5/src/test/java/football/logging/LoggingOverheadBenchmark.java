@@ -0,0 +1,146 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package football.logging;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging overhead on the request thread for a request executing three SQL statements,
+ * with synchronous logging (formatting and writing on the request thread) and with the
+ * {@link AsyncLogPipeline}. The overhead is the difference with the no_logging score.
+ * The pipeline consumer needs a core of its own, so run it on a machine with more cores
+ * than benchmark threads.
+ *
+ * Run the main method from the IDE, or with
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-classpath %classpath football.logging.LoggingOverheadBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(2)
+public class LoggingOverheadBenchmark {
+
+    // Roughly 20 microseconds of request processing, so that the log rate is realistic
+    private static final long REQUEST_WORK_TOKENS = 10_000;
+
+    private static final String URI = "/players";
+
+    private static final String[] SQL = {
+            "select p1_0.id,p1_0.changeVersion,p1_0.firstName,p1_0.lastName,p1_0.team_id from Player p1_0",
+            "select t1_0.id,t1_0.changeVersion,t1_0.name from Team t1_0 where t1_0.id=?",
+            "select t1_0.id,t1_0.changeVersion,t1_0.name from Team t1_0 where t1_0.id=?"
+    };
+
+    @Param({"BLOCK", "DROP"})
+    private OverflowPolicy overflowPolicy;
+
+    private Path synchronousLogFile;
+
+    private Writer synchronousWriter;
+
+    private Path asyncLogFile;
+
+    private AsyncLogPipeline asyncLogPipeline;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        synchronousLogFile = Files.createTempFile("sync-log", ".log");
+        synchronousWriter = new BufferedWriter(new FileWriter(synchronousLogFile.toFile()));
+        asyncLogFile = Files.createTempFile("async-log", ".log");
+        asyncLogPipeline = new AsyncLogPipeline(new BufferedWriter(new FileWriter(asyncLogFile.toFile())), 4096, overflowPolicy);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        synchronousWriter.close();
+        asyncLogPipeline.close();
+        Files.deleteIfExists(synchronousLogFile);
+        Files.deleteIfExists(asyncLogFile);
+    }
+
+    @Benchmark
+    public void no_logging(Blackhole blackhole) {
+        Blackhole.consumeCPU(REQUEST_WORK_TOKENS);
+        blackhole.consume(URI);
+        for (String sql : SQL) {
+            blackhole.consume(sql);
+        }
+    }
+
+    @Benchmark
+    public void synchronous_logging() throws IOException {
+        Blackhole.consumeCPU(REQUEST_WORK_TOKENS);
+        writeSynchronously("ACCESS " + System.currentTimeMillis() + " GET " + URI + " 200 " + 1234 + "us\n");
+        for (String sql : SQL) {
+            writeSynchronously("SQL " + System.currentTimeMillis() + " " + sql + "\n");
+        }
+    }
+
+    private void writeSynchronously(String line) throws IOException {
+        synchronized (synchronousWriter) {
+            synchronousWriter.write(line);
+            synchronousWriter.flush();
+        }
+    }
+
+    @Benchmark
+    public void async_pipeline() {
+        Blackhole.consumeCPU(REQUEST_WORK_TOKENS);
+        asyncLogPipeline.logAccess("GET", URI, 200, 1234);
+        for (String sql : SQL) {
+            asyncLogPipeline.logSql(sql);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoggingOverheadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/logging-overhead-benchmark.json")
+                .build())
+                .run();
+    }
+
+}
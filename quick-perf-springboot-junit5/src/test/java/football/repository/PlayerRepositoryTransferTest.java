@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package football.repository;
+
+import football.entity.Player;
+import org.junit.jupiter.api.Test;
+import org.quickperf.annotation.DisableGlobalAnnotations;
+import org.quickperf.spring.sql.QuickPerfSqlConfig;
+import org.quickperf.sql.annotation.ExpectUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Import(QuickPerfSqlConfig.class)
+@DataJpaTest(properties = {"spring.sql.init.data-locations=classpath:import-teams.sql,classpath:import-many-players.sql"})
+public class PlayerRepositoryTransferTest {
+
+    private static final long MANCHESTER_UNITED_ID = 1L;
+
+    private static final long ATLETICO_DE_MADRID_ID = 2L;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @ExpectUpdate(1)
+    @DisableGlobalAnnotations // JDBC batching is not enabled in this module, the player is
+    // selected again once the update has cleared the persistence context, and updating
+    // 50 000 rows is not expected to be fast.
+    @Test
+    void should_move_all_the_players_of_a_team_with_one_update() {
+
+        Player managedPlayer = playerRepository.findById(1L).orElseThrow();
+
+        int movedPlayerCount = playerRepository.moveAllPlayers(MANCHESTER_UNITED_ID, ATLETICO_DE_MADRID_ID);
+
+        assertThat(movedPlayerCount).isEqualTo(50_000);
+        Player reloadedPlayer = playerRepository.findById(1L).orElseThrow();
+        assertThat(reloadedPlayer).isNotSameAs(managedPlayer);
+        assertThat(reloadedPlayer.getTeam().getId()).isEqualTo(ATLETICO_DE_MADRID_ID);
+
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * Copyright 2020-2021 the original author or authors.
+ */
+
+package football.service;
+
+import football.dto.PlayerChange;
+import football.dto.PlayerChanges;
+import football.entity.Player;
+import football.entity.Team;
+import football.repository.PlayerRepository;
+import football.repository.TeamRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class PlayerServiceChangesTest {
+
+    private static final int TEAM_SIZE = 500;
+
+    @Autowired
+    private PlayerService playerService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void should_return_a_full_snapshot_on_first_sync() {
+
+        aTeamWithPlayers("Manchester United", 2);
+
+        PlayerChanges changes = playerService.findPlayerChangesSince(0);
+
+        assertThat(changes.getUpserts()).extracting(PlayerChange::getTeam)
+                                        .contains("Manchester United");
+        assertThat(changes.getDeletes()).isEmpty();
+
+    }
+
+    @Test
+    public void should_return_all_the_players_of_a_renamed_team() {
+
+        Team team = aTeamWithPlayers("Olympique Lyonnais", TEAM_SIZE);
+        long version = playerService.findPlayerChangesSince(0).getVersion();
+
+        team.setName("OL");
+        teamRepository.save(team);
+
+        PlayerChanges changes = playerService.findPlayerChangesSince(version);
+
+        assertThat(changes.getUpserts()).hasSize(TEAM_SIZE)
+                                        .extracting(PlayerChange::getTeam)
+                                        .containsOnly("OL");
+        assertThat(changes.getDeletes()).isEmpty();
+        assertThat(changes.getVersion()).isGreaterThan(version);
+
+    }
+
+    @Test
+    public void should_only_return_what_changed_after_the_version() {
+
+        Team team = aTeamWithPlayers("FC Nantes", 3);
+        List<Player> players = playerRepository.findAll()
+                                               .stream()
+                                               .filter(p -> team.getId().equals(p.getTeam().getId()))
+                                               .toList();
+        long version = playerService.findPlayerChangesSince(0).getVersion();
+
+        Player renamedPlayer = players.get(0);
+        renamedPlayer.setLastName("Renamed");
+        playerRepository.save(renamedPlayer);
+        Long deletedPlayerId = players.get(1).getId();
+        playerService.deletePlayer(deletedPlayerId);
+
+        PlayerChanges changes = playerService.findPlayerChangesSince(version);
+
+        assertThat(changes.getUpserts()).extracting(PlayerChange::getId)
+                                        .containsExactly(renamedPlayer.getId());
+        assertThat(changes.getDeletes()).containsExactly(deletedPlayerId);
+
+        PlayerChanges nextChanges = playerService.findPlayerChangesSince(changes.getVersion());
+
+        assertThat(nextChanges.getUpserts()).isEmpty();
+        assertThat(nextChanges.getDeletes()).isEmpty();
+        assertThat(nextChanges.getVersion()).isEqualTo(changes.getVersion());
+
+    }
+
+    @Test
+    public void should_not_skip_a_change_committed_after_a_sync() throws Exception {
+
+        Team team = aTeamWithPlayers("Stade Rennais", 0);
+        long version = playerService.findPlayerChangesSince(0).getVersion();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch firstFlushed = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<Long> first = executor.submit(() -> transactionTemplate.execute(status -> {
+                Long id = playerRepository.saveAndFlush(aPlayer("First", team)).getId();
+                firstFlushed.countDown();
+                try {
+                    commitFirst.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return id;
+            }));
+            firstFlushed.await();
+            Future<Long> second = executor.submit(() -> transactionTemplate.execute(
+                    status -> playerRepository.saveAndFlush(aPlayer("Second", team)).getId()));
+
+            // The second transaction cannot take a change version, and commit, before the first one
+            assertThatThrownBy(() -> second.get(300, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+            long versionDuringWrites = playerService.findPlayerChangesSince(version).getVersion();
+            commitFirst.countDown();
+            Long firstId = first.get();
+            Long secondId = second.get();
+
+            PlayerChanges changes = playerService.findPlayerChangesSince(versionDuringWrites);
+
+            assertThat(changes.getUpserts()).extracting(PlayerChange::getId)
+                                            .containsExactlyInAnyOrder(firstId, secondId);
+        } finally {
+            commitFirst.countDown();
+            executor.shutdown();
+        }
+
+    }
+
+    private Team aTeamWithPlayers(String name, int playerCount) {
+        Team team = new Team();
+        team.setName(name);
+        Team savedTeam = teamRepository.save(team);
+        List<Player> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            Player player = aPlayer("lastName" + i, savedTeam);
+            player.setFirstName("firstName" + i);
+            players.add(player);
+        }
+        playerRepository.saveAll(players);
+        return savedTeam;
+    }
+
+    private Player aPlayer(String lastName, Team team) {
+        Player player = new Player();
+        player.setLastName(lastName);
+        player.setTeam(team);
+        return player;
+    }
+
+}
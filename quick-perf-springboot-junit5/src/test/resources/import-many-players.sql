@@ -0,0 +1,2 @@
+INSERT INTO PLAYER (id, firstName, lastName, team_id)
+SELECT X, CONCAT('firstName', X), CONCAT('lastName', X), 1 FROM SYSTEM_RANGE(1, 50000);
\ No newline at end of file
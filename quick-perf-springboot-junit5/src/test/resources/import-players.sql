@@ -1,2 +1,2 @@
-INSERT INTO PLAYER VALUES (1, 'Paul', 'Pogba', 1);
-INSERT INTO PLAYER VALUES (2, 'Antoine', 'Griezmann', 2);
\ No newline at end of file
+INSERT INTO PLAYER (id, firstName, lastName, team_id) VALUES (1, 'Paul', 'Pogba', 1);
+INSERT INTO PLAYER (id, firstName, lastName, team_id) VALUES (2, 'Antoine', 'Griezmann', 2);
\ No newline at end of file
@@ -1,2 +1,2 @@
-INSERT INTO TEAM VALUES (1, 'Manchester United');
-INSERT INTO TEAM VALUES (2, 'Atlético de Madrid');
\ No newline at end of file
+INSERT INTO TEAM (id, name) VALUES (1, 'Manchester United');
+INSERT INTO TEAM (id, name) VALUES (2, 'Atlético de Madrid');
\ No newline at end of file
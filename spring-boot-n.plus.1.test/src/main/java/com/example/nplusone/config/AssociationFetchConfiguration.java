@@ -0,0 +1,20 @@
+package com.example.nplusone.config;
+
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(AssociationFetchProperties.class)
+public class AssociationFetchConfiguration {
+
+    @Bean
+    HibernatePropertiesCustomizer associationFetchCustomizer(AssociationFetchProperties properties) {
+        IntegratorProvider integratorProvider = () -> List.of(new AssociationFetchIntegrator(properties));
+        return hibernateProperties -> hibernateProperties.put("hibernate.integrator_provider", integratorProvider);
+    }
+}
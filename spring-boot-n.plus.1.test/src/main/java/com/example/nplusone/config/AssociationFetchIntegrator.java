@@ -0,0 +1,72 @@
+package com.example.nplusone.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.mapping.Collection;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies {@link AssociationFetchProperties} to the collection mappings, before Hibernate builds the collection
+ * persisters from them.
+ */
+class AssociationFetchIntegrator implements Integrator {
+
+    private final Map<String, AssociationFetchProperties.Association> associations;
+
+    AssociationFetchIntegrator(AssociationFetchProperties properties) {
+        this.associations = properties.getAssociations();
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        Map<String, Collection> collectionsByAssociation = new HashMap<>();
+        for (Collection collection : metadata.getCollectionBindings()) {
+            collectionsByAssociation.put(associationName(collection), collection);
+        }
+        associations.forEach((associationName, association) -> {
+            Collection collection = collectionsByAssociation.get(associationName);
+            if (collection == null) {
+                throw new IllegalStateException("Unknown association " + associationName
+                        + " in fetch properties, expected one of " + collectionsByAssociation.keySet());
+            }
+            apply(association, collection);
+        });
+    }
+
+    private static String associationName(Collection collection) {
+        String ownerEntityName = collection.getOwnerEntityName();
+        String ownerSimpleName = ownerEntityName.substring(ownerEntityName.lastIndexOf('.') + 1);
+        return ownerSimpleName + collection.getRole().substring(ownerEntityName.length());
+    }
+
+    private static void apply(AssociationFetchProperties.Association association, Collection collection) {
+        switch (association.getMode()) {
+            case SELECT -> {
+                collection.setBatchSize(-1);
+                collection.setSubselectLoadable(false);
+            }
+            case BATCH -> {
+                if (association.getBatchSize() < 2) {
+                    throw new IllegalStateException("Batch size of " + collection.getRole() + " must be at least 2");
+                }
+                collection.setBatchSize(association.getBatchSize());
+                collection.setSubselectLoadable(false);
+            }
+            case SUBSELECT -> {
+                collection.setBatchSize(-1);
+                collection.setSubselectLoadable(true);
+                // Makes Hibernate remember the query loading the owners
+                collection.getOwner().setSubselectLoadableCollections(true);
+            }
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
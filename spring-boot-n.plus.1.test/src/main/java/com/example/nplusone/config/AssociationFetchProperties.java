@@ -0,0 +1,57 @@
+package com.example.nplusone.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * How lazy collections are loaded, per association, instead of @BatchSize and @Fetch annotations:
+ * <pre>
+ * fetch.associations[Doctor.appointments].mode=batch
+ * fetch.associations[Doctor.appointments].batch-size=25
+ * fetch.associations[Doctor.patients].mode=subselect
+ * </pre>
+ * Associations are named after the simple name of the owning entity and the collection attribute.
+ */
+@ConfigurationProperties(prefix = "fetch")
+public class AssociationFetchProperties {
+
+    private final Map<String, Association> associations = new LinkedHashMap<>();
+
+    public Map<String, Association> getAssociations() {
+        return associations;
+    }
+
+    public enum Mode {
+        /** One select per collection, when it is first accessed: the N+1 selects. */
+        SELECT,
+        /** One select for the collections of up to batch-size owners loaded in the same session. */
+        BATCH,
+        /** One select for the collections of all the owners loaded by the same query. */
+        SUBSELECT
+    }
+
+    public static class Association {
+
+        private Mode mode = Mode.SELECT;
+
+        private int batchSize = 16;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+}
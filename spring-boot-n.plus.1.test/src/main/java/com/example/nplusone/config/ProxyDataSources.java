@@ -0,0 +1,55 @@
+package com.example.nplusone.config;
+
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Adds datasource-proxy listeners to a DataSource with a single proxy, whatever the number of components listening to
+ * its statements. Each proxy layer runs its own wrapping of every connection, statement and result set.
+ */
+public final class ProxyDataSources {
+
+    private ProxyDataSources() {
+    }
+
+    /**
+     * Adds the listeners to the DataSource if it is already a proxy, otherwise wraps it in a new proxy with the given
+     * name. Returns the proxy.
+     */
+    public static ProxyDataSource withListeners(DataSource dataSource, String name, QueryExecutionListener... listeners) {
+        if (dataSource instanceof ProxyDataSource proxyDataSource) {
+            for (QueryExecutionListener listener : listeners) {
+                proxyDataSource.addListener(listener);
+            }
+            return proxyDataSource;
+        }
+        ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource).name(name);
+        for (QueryExecutionListener listener : listeners) {
+            builder.listener(listener);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Post processor adding the listener to the DataSource beans, with {@link #withListeners}. Declare its bean method
+     * static, so that the DataSource is not created before the post processor. The listener is looked up once the
+     * DataSource is created.
+     */
+    public static BeanPostProcessor listenerPostProcessor(String name,
+                                                          ObjectProvider<? extends QueryExecutionListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return withListeners(dataSource, name, listener.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
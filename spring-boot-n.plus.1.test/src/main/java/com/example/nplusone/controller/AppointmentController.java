@@ -0,0 +1,77 @@
+package com.example.nplusone.controller;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.example.nplusone.repository.AppointmentRepository;
+import com.example.nplusone.repository.AppointmentSlot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+@CrossOrigin(origins = "http://localhost:8081")
+@RestController
+@RequestMapping("/api")
+public class AppointmentController {
+
+	static final int DEFAULT_PAGE_SIZE = 20;
+
+	static final int MAX_PAGE_SIZE = 100;
+
+	@Autowired
+	AppointmentRepository appointmentRepository;
+
+	/**
+	 * Schedule of a doctor from {@code from} inclusive to {@code to} exclusive, by time then id. A Link header points
+	 * to the next page, if any: it starts after the last appointment returned, given by afterTime and afterId.
+	 */
+	@GetMapping("/doctors/{doctorId}/appointments")
+	public ResponseEntity<List<AppointmentSlot>> getSchedule(@PathVariable("doctorId") long doctorId,
+			@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterTime,
+			@RequestParam(required = false) Long afterId,
+			@RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+		if ((afterTime == null) != (afterId == null) || size < 1) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+
+		try {
+			int pageSize = Math.min(size, MAX_PAGE_SIZE);
+			// one more row tells whether there is a next page
+			Limit limit = Limit.of(pageSize + 1);
+			List<AppointmentSlot> appointments = afterTime == null
+					? appointmentRepository.findSchedule(doctorId, from, to, limit)
+					: appointmentRepository.findScheduleAfter(doctorId, from, to, afterTime, afterId, limit);
+
+			if (appointments.isEmpty()) {
+				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+			}
+
+			HttpHeaders headers = new HttpHeaders();
+			if (appointments.size() > pageSize) {
+				appointments = appointments.subList(0, pageSize);
+				AppointmentSlot last = appointments.get(pageSize - 1);
+				String next = ServletUriComponentsBuilder.fromCurrentRequest()
+						.replaceQueryParam("afterTime", last.getAppointmentTime())
+						.replaceQueryParam("afterId", last.getId())
+						.toUriString();
+				headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+			}
+			return new ResponseEntity<>(appointments, headers, HttpStatus.OK);
+		} catch (Exception e) {
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+
+}
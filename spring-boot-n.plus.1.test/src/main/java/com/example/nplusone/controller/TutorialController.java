@@ -1,17 +1,33 @@
 package com.example.nplusone.controller;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import com.example.nplusone.model.Tutorial;
+import com.example.nplusone.published.PublishedTutorial;
+import com.example.nplusone.published.PublishedTutorials;
+import com.example.nplusone.repository.TutorialPatch;
 import com.example.nplusone.repository.TutorialRepository;
+import com.example.nplusone.search.TutorialSearch;
+import com.example.nplusone.service.TutorialService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -19,30 +35,63 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @CrossOrigin(origins = "http://localhost:8081")
 @RestController
 @RequestMapping("/api")
 public class TutorialController {
 
+	static final int DEFAULT_PAGE_SIZE = 20;
+
 	@Autowired
     TutorialRepository tutorialRepository;
 
+	@Autowired
+	TutorialSearch tutorialSearch;
+
+	@Autowired
+	PublishedTutorials publishedTutorials;
+
+	@Autowired
+	TutorialService tutorialService;
+
+	/**
+	 * Page size is capped by spring.data.web.pageable.max-page-size. A Link header points to the next page, if any.
+	 */
 	@GetMapping("/tutorials")
-	public ResponseEntity<List<Tutorial>> getAllTutorials(@RequestParam(required = false) String title) {
+	public ResponseEntity<List<Tutorial>> getAllTutorials(@RequestParam(required = false) String title,
+			@PageableDefault(size = DEFAULT_PAGE_SIZE, sort = "id") Pageable pageable) {
 		try {
-			List<Tutorial> tutorials = new ArrayList<Tutorial>();
+			Slice<Tutorial> tutorials;
 
 			if (title == null)
-				tutorialRepository.findAll().forEach(tutorials::add);
+				tutorials = tutorialRepository.findAllBy(pageable);
 			else
-				tutorialRepository.findByTitleContaining(title).forEach(tutorials::add);
+				tutorials = tutorialRepository.findByTitleContaining(title, pageable);
 
-			if (tutorials.isEmpty()) {
-				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-			}
+			return sliceResponse(tutorials);
+		} catch (Exception e) {
+			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
 
-			return new ResponseEntity<>(tutorials, HttpStatus.OK);
+	/**
+	 * Tutorials whose title or description contains any word of q, best ranked first.
+	 */
+	@GetMapping("/tutorials/search")
+	public ResponseEntity<List<Tutorial>> searchTutorials(@RequestParam("q") String query,
+			@PageableDefault(size = DEFAULT_PAGE_SIZE) Pageable pageable) {
+		try {
+			Slice<Long> ids = tutorialSearch.search(query, pageable);
+			Map<Long, Tutorial> tutorialsById = tutorialRepository.findAllById(ids.getContent()).stream()
+					.collect(Collectors.toMap(Tutorial::getId, Function.identity()));
+			List<Tutorial> tutorials = ids.stream()
+					.map(tutorialsById::get)
+					.filter(Objects::nonNull)
+					.toList();
+
+			return sliceResponse(new SliceImpl<>(tutorials, pageable, ids.hasNext()));
 		} catch (Exception e) {
 			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
 		}
@@ -85,6 +134,47 @@ public class TutorialController {
 		}
 	}
 
+	/**
+	 * Updates the non-null fields of the body with one statement, if the tutorial still has the version of the body.
+	 * The ETag header holds the new version. 409 if the tutorial was updated since that version.
+	 */
+	@PatchMapping("/tutorials/{id}")
+	public ResponseEntity<HttpStatus> patchTutorial(@PathVariable("id") long id, @RequestBody TutorialPatch patch) {
+		if (patch.version() == null || patch.isEmpty()) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		try {
+			OptionalLong version = tutorialService.patch(id, patch);
+			if (version.isEmpty()) {
+				return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+			}
+			return ResponseEntity.noContent().eTag(Long.toString(version.getAsLong())).build();
+		} catch (ObjectOptimisticLockingFailureException e) {
+			return new ResponseEntity<>(HttpStatus.CONFLICT);
+		} catch (Exception e) {
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+
+	/**
+	 * Publishes the tutorials of the given ids, or those whose title contains the given text, with one statement.
+	 * Returns the number of tutorials published.
+	 */
+	@PostMapping("/tutorials/publish")
+	public ResponseEntity<Integer> publishTutorials(@RequestBody PublishRequest request) {
+		if ((request.ids() == null) == (request.title() == null)) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		try {
+			int published = request.ids() != null
+					? tutorialService.publishInBulk(request.ids())
+					: tutorialService.publishInBulkByTitle(request.title());
+			return new ResponseEntity<>(published, HttpStatus.OK);
+		} catch (Exception e) {
+			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+
 	@DeleteMapping("/tutorials/{id}")
 	public ResponseEntity<HttpStatus> deleteTutorial(@PathVariable("id") long id) {
 		try {
@@ -98,7 +188,7 @@ public class TutorialController {
 	@DeleteMapping("/tutorials")
 	public ResponseEntity<HttpStatus> deleteAllTutorials() {
 		try {
-			tutorialRepository.deleteAll();
+			tutorialService.deleteAllInBulk();
 			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 		} catch (Exception e) {
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -106,18 +196,42 @@ public class TutorialController {
 
 	}
 
+	/**
+	 * Served from the published tutorials snapshot, sorted by id.
+	 */
 	@GetMapping("/tutorials/published")
-	public ResponseEntity<List<Tutorial>> findByPublished() {
+	public ResponseEntity<List<PublishedTutorial>> findByPublished(
+			@PageableDefault(size = DEFAULT_PAGE_SIZE) Pageable pageable) {
 		try {
-			List<Tutorial> tutorials = tutorialRepository.findByPublished(true);
-
-			if (tutorials.isEmpty()) {
-				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-			}
-			return new ResponseEntity<>(tutorials, HttpStatus.OK);
+			return sliceResponse(publishedTutorials.findAll(pageable));
 		} catch (Exception e) {
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
 
+	/**
+	 * Writes the slice content as it was read, the list is not copied.
+	 */
+	private <T> ResponseEntity<List<T>> sliceResponse(Slice<T> tutorials) {
+		if (!tutorials.hasContent()) {
+			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+		}
+
+		HttpHeaders headers = new HttpHeaders();
+		if (tutorials.hasNext()) {
+			String next = ServletUriComponentsBuilder.fromCurrentRequest()
+					.replaceQueryParam("page", tutorials.getNumber() + 1)
+					.replaceQueryParam("size", tutorials.getSize())
+					.toUriString();
+			headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+		}
+		return new ResponseEntity<>(tutorials.getContent(), headers, HttpStatus.OK);
+	}
+
+	/**
+	 * Either ids or title.
+	 */
+	public record PublishRequest(List<Long> ids, String title) {
+	}
+
 }
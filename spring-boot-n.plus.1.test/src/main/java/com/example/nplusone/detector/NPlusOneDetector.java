@@ -0,0 +1,157 @@
+package com.example.nplusone.detector;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * datasource-proxy listener counting the executions of each statement fingerprint per Spring transaction, and
+ * reporting an N+1 incident when one select fingerprint runs more than the threshold number of times. Repeated
+ * inserts and updates are left to JDBC batching.
+ * <p>
+ * Meant to stay on under load: only a sample of the transactions is tracked, the fingerprints tracked per
+ * transaction and the incidents kept are bounded, the stack is only walked when an incident is reported, and an
+ * incident is reported once per fingerprint and transaction. Statements executed outside a transaction are ignored.
+ */
+public class NPlusOneDetector implements QueryExecutionListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NPlusOneDetector.class);
+
+    private static final TransactionQueries NOT_SAMPLED = new TransactionQueries();
+
+    private final NPlusOneDetectorProperties properties;
+
+    private final Deque<NPlusOneIncident> recentIncidents = new ArrayDeque<>();
+
+    private final LongAdder incidentCount = new LongAdder();
+
+    private final LongAdder untrackedFingerprintCount = new LongAdder();
+
+    public NPlusOneDetector(NPlusOneDetectorProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        TransactionQueries transactionQueries = currentTransactionQueries();
+        if (transactionQueries == null || transactionQueries == NOT_SAMPLED) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            String fingerprint = SqlFingerprint.of(queryInfo.getQuery());
+            if (fingerprint.startsWith("select") || fingerprint.startsWith("with")) {
+                count(transactionQueries, fingerprint);
+            }
+        }
+    }
+
+    private TransactionQueries currentTransactionQueries() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        TransactionQueries transactionQueries = (TransactionQueries) TransactionSynchronizationManager.getResource(this);
+        if (transactionQueries == null) {
+            transactionQueries = ThreadLocalRandom.current().nextDouble() < properties.getSampleRate()
+                    ? new TransactionQueries()
+                    : NOT_SAMPLED;
+            TransactionSynchronizationManager.bindResource(this, transactionQueries);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(NPlusOneDetector.this);
+                }
+            });
+        }
+        return transactionQueries;
+    }
+
+    private void count(TransactionQueries transactionQueries, String fingerprint) {
+        int[] executions = transactionQueries.executionsByFingerprint.get(fingerprint);
+        if (executions == null) {
+            if (transactionQueries.executionsByFingerprint.size() >= properties.getMaxFingerprintsPerTransaction()) {
+                untrackedFingerprintCount.increment();
+                return;
+            }
+            executions = new int[1];
+            transactionQueries.executionsByFingerprint.put(fingerprint, executions);
+        }
+        executions[0]++;
+        if (executions[0] == properties.getThreshold() + 1) {
+            report(new NPlusOneIncident(fingerprint, executions[0], caller()));
+        }
+    }
+
+    private String caller() {
+        String applicationPackage = properties.getApplicationPackage();
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(applicationPackage)
+                        && !frame.getClassName().equals(NPlusOneDetector.class.getName())
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName() + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse("unknown"));
+    }
+
+    private void report(NPlusOneIncident incident) {
+        incidentCount.increment();
+        synchronized (recentIncidents) {
+            if (recentIncidents.size() >= properties.getMaxRecentIncidents()) {
+                recentIncidents.removeFirst();
+            }
+            recentIncidents.addLast(incident);
+        }
+        LOGGER.warn("N+1 select suspected: {} executions of [{}] in one transaction, from {}",
+                incident.executions(), incident.fingerprint(), incident.caller());
+    }
+
+    /**
+     * The last incidents reported, oldest first.
+     */
+    public List<NPlusOneIncident> getRecentIncidents() {
+        synchronized (recentIncidents) {
+            return new ArrayList<>(recentIncidents);
+        }
+    }
+
+    public long getIncidentCount() {
+        return incidentCount.sum();
+    }
+
+    /**
+     * Executions not counted because their transaction already tracked the maximum number of fingerprints.
+     */
+    public long getUntrackedFingerprintCount() {
+        return untrackedFingerprintCount.sum();
+    }
+
+    public void clear() {
+        synchronized (recentIncidents) {
+            recentIncidents.clear();
+        }
+        incidentCount.reset();
+        untrackedFingerprintCount.reset();
+    }
+
+    // Confined to the thread of its transaction
+    private static class TransactionQueries {
+
+        private final Map<String, int[]> executionsByFingerprint = new HashMap<>();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.nplusone.detector;
+
+import com.example.nplusone.config.ProxyDataSources;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(NPlusOneDetectorProperties.class)
+@ConditionalOnProperty(prefix = "nplusone.detector", name = "enabled", matchIfMissing = true)
+public class NPlusOneDetectorConfiguration {
+
+    @Bean
+    public NPlusOneDetector nPlusOneDetector(NPlusOneDetectorProperties properties) {
+        return new NPlusOneDetector(properties);
+    }
+
+    @Bean
+    static BeanPostProcessor nPlusOneDetectorDataSourceWrapper(ObjectProvider<NPlusOneDetector> detector) {
+        return ProxyDataSources.listenerPostProcessor("NPlusOneDetector", detector);
+    }
+}
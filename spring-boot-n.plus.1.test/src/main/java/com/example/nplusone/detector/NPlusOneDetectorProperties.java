@@ -0,0 +1,73 @@
+package com.example.nplusone.detector;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "nplusone.detector")
+public class NPlusOneDetectorProperties {
+
+    /** Wraps the DataSource with the detector. */
+    private boolean enabled = true;
+
+    /** Executions of one fingerprint in one transaction above which an incident is reported. */
+    private int threshold = 5;
+
+    /** Share of the transactions that are tracked, between 0 and 1. */
+    private double sampleRate = 1.0;
+
+    /** Distinct fingerprints tracked per transaction, the next ones are ignored. */
+    private int maxFingerprintsPerTransaction = 256;
+
+    /** Incidents kept for {@link NPlusOneDetector#getRecentIncidents()}. */
+    private int maxRecentIncidents = 100;
+
+    /** Package prefix of the classes reported as callers. */
+    private String applicationPackage = "com.example.nplusone";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public int getMaxFingerprintsPerTransaction() {
+        return maxFingerprintsPerTransaction;
+    }
+
+    public void setMaxFingerprintsPerTransaction(int maxFingerprintsPerTransaction) {
+        this.maxFingerprintsPerTransaction = maxFingerprintsPerTransaction;
+    }
+
+    public int getMaxRecentIncidents() {
+        return maxRecentIncidents;
+    }
+
+    public void setMaxRecentIncidents(int maxRecentIncidents) {
+        this.maxRecentIncidents = maxRecentIncidents;
+    }
+
+    public String getApplicationPackage() {
+        return applicationPackage;
+    }
+
+    public void setApplicationPackage(String applicationPackage) {
+        this.applicationPackage = applicationPackage;
+    }
+}
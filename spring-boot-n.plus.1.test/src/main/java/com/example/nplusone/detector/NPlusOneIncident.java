@@ -0,0 +1,11 @@
+package com.example.nplusone.detector;
+
+/**
+ * The same statement fingerprint executed more than the threshold number of times in one transaction.
+ *
+ * @param fingerprint normalized SQL, see {@link SqlFingerprint}
+ * @param executions  executions in the transaction when the incident was reported
+ * @param caller      first application stack frame executing the statement, or "unknown"
+ */
+public record NPlusOneIncident(String fingerprint, int executions, String caller) {
+}
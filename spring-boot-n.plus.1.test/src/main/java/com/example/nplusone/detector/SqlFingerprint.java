@@ -0,0 +1,97 @@
+package com.example.nplusone.detector;
+
+/**
+ * Normalizes SQL so that statements differing only by their values share a fingerprint: string and numeric
+ * literals become ?, lists of ? such as IN lists collapse to a single ?, and whitespace collapses to one space.
+ */
+public final class SqlFingerprint {
+
+    static final int MAX_LENGTH = 1024;
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        StringBuilder fingerprint = new StringBuilder(Math.min(sql.length(), MAX_LENGTH));
+        int i = 0;
+        int length = sql.length();
+        while (i < length && fingerprint.length() < MAX_LENGTH) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = skipStringLiteral(sql, i);
+                appendPlaceholder(fingerprint);
+            } else if (isNumberStart(sql, i)) {
+                while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                appendPlaceholder(fingerprint);
+            } else if (c == '?') {
+                i++;
+                appendPlaceholder(fingerprint);
+            } else if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (fingerprint.length() > 0) {
+                    fingerprint.append(' ');
+                }
+            } else {
+                fingerprint.append(Character.toLowerCase(c));
+                i++;
+            }
+        }
+        int end = fingerprint.length();
+        while (end > 0 && fingerprint.charAt(end - 1) == ' ') {
+            end--;
+        }
+        fingerprint.setLength(end);
+        return fingerprint.toString();
+    }
+
+    private static int skipStringLiteral(String sql, int start) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == '\'') {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    // A digit that does not continue an identifier such as t1_0 or a column alias
+    private static boolean isNumberStart(String sql, int i) {
+        if (!Character.isDigit(sql.charAt(i))) {
+            return false;
+        }
+        if (i == 0) {
+            return true;
+        }
+        char previous = sql.charAt(i - 1);
+        return !Character.isLetterOrDigit(previous) && previous != '_' && previous != '.' && previous != '$';
+    }
+
+    // "?, ?, ?" and "?,?" become "?"
+    private static void appendPlaceholder(StringBuilder fingerprint) {
+        int end = fingerprint.length();
+        int i = end - 1;
+        while (i >= 0 && fingerprint.charAt(i) == ' ') {
+            i--;
+        }
+        if (i >= 0 && fingerprint.charAt(i) == ',') {
+            int j = i - 1;
+            while (j >= 0 && fingerprint.charAt(j) == ' ') {
+                j--;
+            }
+            if (j >= 0 && fingerprint.charAt(j) == '?') {
+                fingerprint.setLength(j + 1);
+                return;
+            }
+        }
+        fingerprint.append('?');
+    }
+}
@@ -4,15 +4,32 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
+/**
+ * The ISBN is the natural id: it is unique and cannot change. Books and their ISBN to id resolutions are kept in the
+ * second-level cache, see {@code BookRepository.findByIsbn}.
+ */
 @Entity
+@Table(indexes = @Index(name = "idx_book_title", columnList = "title"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "books")
+@NaturalIdCache(region = "book-isbns")
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", allocationSize = 50)
     private Long id;
 
     private String title;
+    // Hibernate adds a unique constraint, and so an index, on the natural id
+    @NaturalId
     private String isbn;
     private String publisher;
     private Long authorId;
@@ -1,22 +1,35 @@
 package com.example.nplusone.model;
 
 import jakarta.persistence.*;
+import org.hibernate.Hibernate;
+
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@NamedEntityGraph(name = Doctor.WITH_APPOINTMENTS, attributeNodes = @NamedAttributeNode("appointments"))
+@NamedEntityGraph(name = Doctor.WITH_APPOINTMENTS_AND_PATIENTS, attributeNodes = {
+        @NamedAttributeNode("appointments"),
+        @NamedAttributeNode("patients")
+})
 public class Doctor {
+    public static final String WITH_APPOINTMENTS = "Doctor.withAppointments";
+    public static final String WITH_APPOINTMENTS_AND_PATIENTS = "Doctor.withAppointmentsAndPatients";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence ids, 50 per round trip, let Hibernate batch the inserts. IDENTITY ids disable insert batching
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "doctor_seq")
+    @SequenceGenerator(name = "doctor_seq", allocationSize = 50)
     private Long id;
 
     private String name;
 
-    @OneToMany(mappedBy = "doctor", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    // Collections are loaded on demand, use the DoctorRepository fetch plans to load them with the doctor
+    @OneToMany(mappedBy = "doctor", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 //    @BatchSize(size = 3)
     private Set<Appointment> appointments = new HashSet<>();
 //    @BatchSize(size = 3)
-    @OneToMany(mappedBy = "doctor", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "doctor", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<Patient> patients = new HashSet<>();
 
     public Doctor() {
@@ -54,6 +67,24 @@ public class Doctor {
         this.patients = patients;
     }
 
+    // Extra-lazy reads: a count or exists select while the collection is not loaded, instead of loading every row
+
+    public int countAppointments() {
+        return Hibernate.size(appointments);
+    }
+
+    public boolean hasAppointment(Appointment appointment) {
+        return Hibernate.contains(appointments, appointment);
+    }
+
+    public int countPatients() {
+        return Hibernate.size(patients);
+    }
+
+    public boolean hasPatient(Patient patient) {
+        return Hibernate.contains(patients, patient);
+    }
+
     public void addAppointment(Appointment appointment){
         this.appointments.add(appointment);
         appointment.setDoctor(this);
@@ -5,7 +5,8 @@ import jakarta.persistence.*;
 @Entity
 public class Patient {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_seq")
+    @SequenceGenerator(name = "patient_seq", allocationSize = 50)
     private Long id;
 
     private String name;
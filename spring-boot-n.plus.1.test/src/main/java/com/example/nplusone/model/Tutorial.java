@@ -1,9 +1,13 @@
 package com.example.nplusone.model;
 
+import com.example.nplusone.published.PublishedTutorialsListener;
+import com.example.nplusone.search.TutorialIndexListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
-@Table(name = "tutorials")
+@Table(name = "tutorials", indexes = @Index(name = "idx_tutorials_published", columnList = "published, id"))
+@EntityListeners({TutorialIndexListener.class, PublishedTutorialsListener.class})
 public class Tutorial {
 
 	@Id
@@ -19,6 +23,14 @@ public class Tutorial {
 	@Column(name = "published")
 	private boolean published;
 
+	/**
+	 * Incremented by each update, which fails if another one came first. Rows inserted with plain JDBC start at 0.
+	 */
+	@Version
+	@ColumnDefault("0")
+	@Column(name = "version")
+	private long version;
+
 	public Tutorial() {
 
 	}
@@ -57,9 +69,14 @@ public class Tutorial {
 		this.published = isPublished;
 	}
 
+	public long getVersion() {
+		return version;
+	}
+
 	@Override
 	public String toString() {
-		return "Tutorial [id=" + id + ", title=" + title + ", desc=" + description + ", published=" + published + "]";
+		return "Tutorial [id=" + id + ", title=" + title + ", desc=" + description + ", published=" + published
+				+ ", version=" + version + "]";
 	}
 
 }
@@ -0,0 +1,26 @@
+package com.example.nplusone.published;
+
+import com.example.nplusone.model.Tutorial;
+
+/**
+ * Immutable copy of a published tutorial, serialized like {@link Tutorial}. As a change applied to
+ * {@link PublishedTutorials}, an unpublished copy removes the tutorial.
+ */
+public record PublishedTutorial(long id, String title, String description, boolean published, long version) {
+
+    public PublishedTutorial(long id, String title, String description, long version) {
+        this(id, title, description, true, version);
+    }
+
+    /**
+     * The change removing a tutorial unpublished or deleted at the given version.
+     */
+    public static PublishedTutorial unpublished(long id, long version) {
+        return new PublishedTutorial(id, null, null, false, version);
+    }
+
+    static PublishedTutorial of(Tutorial tutorial) {
+        return new PublishedTutorial(tutorial.getId(), tutorial.getTitle(), tutorial.getDescription(),
+                tutorial.isPublished(), tutorial.getVersion());
+    }
+}
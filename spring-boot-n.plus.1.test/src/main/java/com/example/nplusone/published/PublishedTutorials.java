@@ -0,0 +1,141 @@
+package com.example.nplusone.published;
+
+import com.example.nplusone.repository.TutorialRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published tutorials served from an immutable snapshot sorted by id, without reading the database.
+ * <p>
+ * The snapshot is read from the database on first use. {@link PublishedTutorialsListener} then patches it with the
+ * tutorials each transaction changed, once the transaction commits: the changes are applied to a copy which replaces
+ * the snapshot, so a reader sees all the changes of a transaction or none. Rows written with plain JDBC or bulk JPQL
+ * statements are not seen by the listener: call {@link #apply(Collection)} with the rows written when they are known,
+ * otherwise {@link #rebuild()} or {@link #invalidate()}.
+ * <p>
+ * Changes are applied by the thread committing them, so two transactions may apply theirs in the opposite order to
+ * their commits. The snapshot keeps the version of each removed tutorial until it is rebuilt, and a change older than
+ * the tutorial it holds, or than its removal, is ignored.
+ */
+@Component
+public class PublishedTutorials {
+
+    private static final Comparator<PublishedTutorial> BY_ID = Comparator.comparingLong(PublishedTutorial::id);
+
+    private final TutorialRepository tutorialRepository;
+
+    private volatile List<PublishedTutorial> snapshot;
+
+    private final Map<Long, Long> removedVersions = new HashMap<>();
+
+    public PublishedTutorials(TutorialRepository tutorialRepository) {
+        this.tutorialRepository = tutorialRepository;
+    }
+
+    /**
+     * The sort of the pageable is ignored, tutorials are sorted by id.
+     */
+    public Slice<PublishedTutorial> findAll(Pageable pageable) {
+        List<PublishedTutorial> tutorials = snapshot();
+        int from = (int) Math.min(pageable.getOffset(), tutorials.size());
+        int to = Math.min(from + pageable.getPageSize(), tutorials.size());
+        return new SliceImpl<>(tutorials.subList(from, to), pageable, to < tutorials.size());
+    }
+
+    public List<PublishedTutorial> snapshot() {
+        List<PublishedTutorial> tutorials = snapshot;
+        return tutorials != null ? tutorials : rebuild();
+    }
+
+    public synchronized List<PublishedTutorial> rebuild() {
+        List<PublishedTutorial> tutorials = List.copyOf(tutorialRepository.findByPublishedOrderById(true));
+        snapshot = tutorials;
+        removedVersions.clear();
+        return tutorials;
+    }
+
+    /**
+     * Drops the snapshot, the next read loads the published tutorials from the database.
+     */
+    public synchronized void invalidate() {
+        snapshot = null;
+        removedVersions.clear();
+    }
+
+    /**
+     * Applies the changes of a committed transaction, one per tutorial: the tutorial as published, or
+     * {@link PublishedTutorial#unpublished(long, long)} if it was unpublished or deleted. Changes are dropped while
+     * there is no snapshot, the next read loads them from the database.
+     */
+    public synchronized void apply(Collection<PublishedTutorial> changes) {
+        List<PublishedTutorial> current = snapshot;
+        if (current == null) {
+            return;
+        }
+        Map<Long, PublishedTutorial> applied = new LinkedHashMap<>();
+        for (PublishedTutorial change : changes) {
+            if (!isOlderThanApplied(current, change)) {
+                applied.put(change.id(), change);
+            }
+        }
+        if (applied.isEmpty()) {
+            return;
+        }
+        List<PublishedTutorial> patched = new ArrayList<>(current.size() + applied.size());
+        for (PublishedTutorial tutorial : current) {
+            if (!applied.containsKey(tutorial.id())) {
+                patched.add(tutorial);
+            }
+        }
+        for (PublishedTutorial change : applied.values()) {
+            if (change.published()) {
+                patched.add(change);
+                removedVersions.remove(change.id());
+            } else {
+                removedVersions.put(change.id(), change.version());
+            }
+        }
+        patched.sort(BY_ID);
+        snapshot = List.copyOf(patched);
+    }
+
+    /**
+     * A deleted tutorial keeps the version of its last update: a change of the same version as its removal was
+     * committed before the removal, and is ignored.
+     */
+    private boolean isOlderThanApplied(List<PublishedTutorial> current, PublishedTutorial change) {
+        int index = indexOf(current, change.id());
+        if (index >= 0) {
+            return change.version() < current.get(index).version();
+        }
+        Long removedVersion = removedVersions.get(change.id());
+        return removedVersion != null && change.version() <= removedVersion;
+    }
+
+    private static int indexOf(List<PublishedTutorial> tutorials, long id) {
+        int low = 0;
+        int high = tutorials.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = tutorials.get(middle).id();
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.nplusone.published;
+
+import com.example.nplusone.model.Tutorial;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the tutorials written through JPA in a transaction, and applies them to {@link PublishedTutorials} in one
+ * patch when the transaction commits. Nothing is applied on rollback.
+ * <p>
+ * Hibernate creates the listener through Spring, the snapshot is looked up lazily like in
+ * {@code TutorialIndexListener}.
+ */
+public class PublishedTutorialsListener {
+
+    private final ObjectProvider<PublishedTutorials> publishedTutorials;
+
+    public PublishedTutorialsListener(ObjectProvider<PublishedTutorials> publishedTutorials) {
+        this.publishedTutorials = publishedTutorials;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void tutorialSaved(Tutorial tutorial) {
+        record(PublishedTutorial.of(tutorial));
+    }
+
+    @PostRemove
+    void tutorialRemoved(Tutorial tutorial) {
+        record(PublishedTutorial.unpublished(tutorial.getId(), tutorial.getVersion()));
+    }
+
+    private void record(PublishedTutorial change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publishedTutorials.getObject().apply(List.of(change));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, PublishedTutorial> changes =
+                (Map<Long, PublishedTutorial>) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new LinkedHashMap<>();
+            bindToTransaction(changes);
+        }
+        changes.put(change.id(), change);
+    }
+
+    private void bindToTransaction(Map<Long, PublishedTutorial> changes) {
+        TransactionSynchronizationManager.bindResource(this, changes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publishedTutorials.getObject().apply(changes.values());
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PublishedTutorialsListener.this);
+            }
+        });
+    }
+}
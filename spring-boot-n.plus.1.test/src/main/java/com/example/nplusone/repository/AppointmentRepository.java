@@ -0,0 +1,47 @@
+package com.example.nplusone.repository;
+
+import com.example.nplusone.model.Appointment;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Count and exists checks and schedule of the appointments of a doctor, without loading the doctor nor its
+ * appointments.
+ */
+public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+
+  // doctor.id is read from the foreign key column, without joining the doctor table
+
+  @Query("select count(a) from Appointment a where a.doctor.id = :doctorId")
+  long countByDoctorId(Long doctorId);
+
+  @Query("select count(a) > 0 from Appointment a where a.id = :id and a.doctor.id = :doctorId")
+  boolean existsByIdAndDoctorId(Long id, Long doctorId);
+
+  /**
+   * Appointments of a doctor from {@code from} inclusive to {@code to} exclusive, by time then id. Each page is one
+   * range read on the {@code (doctor_id, appointment_time, id)} index: the next page starts after the last appointment
+   * of the previous one, with {@link #findScheduleAfter}, rather than skipping an offset, so its cost depends on the
+   * limit only.
+   */
+  @Query("""
+      select a.id as id, a.appointmentTime as appointmentTime from Appointment a
+      where a.doctor.id = :doctorId and a.appointmentTime >= :from and a.appointmentTime < :to
+      order by a.appointmentTime, a.id""")
+  List<AppointmentSlot> findSchedule(Long doctorId, LocalDateTime from, LocalDateTime to, Limit limit);
+
+  /**
+   * Next page of {@link #findSchedule}, after the appointment at {@code afterTime} with id {@code afterId}.
+   */
+  @Query("""
+      select a.id as id, a.appointmentTime as appointmentTime from Appointment a
+      where a.doctor.id = :doctorId and a.appointmentTime >= :from and a.appointmentTime < :to
+      and (a.appointmentTime > :afterTime or (a.appointmentTime = :afterTime and a.id > :afterId))
+      order by a.appointmentTime, a.id""")
+  List<AppointmentSlot> findScheduleAfter(Long doctorId, LocalDateTime from, LocalDateTime to, LocalDateTime afterTime,
+      Long afterId, Limit limit);
+}
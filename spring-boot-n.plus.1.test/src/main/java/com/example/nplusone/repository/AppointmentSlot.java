@@ -0,0 +1,13 @@
+package com.example.nplusone.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Schedule entry of a doctor, read from the appointment index without loading the appointment nor its doctor.
+ */
+public interface AppointmentSlot {
+
+    Long getId();
+
+    LocalDateTime getAppointmentTime();
+}
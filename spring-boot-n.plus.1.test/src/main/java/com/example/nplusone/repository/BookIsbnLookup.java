@@ -0,0 +1,14 @@
+package com.example.nplusone.repository;
+
+import com.example.nplusone.model.Book;
+
+import java.util.Optional;
+
+public interface BookIsbnLookup {
+
+    /**
+     * Loads the book by natural id. After the first hit, the ISBN is resolved to the id and the id to the book from
+     * the second-level cache, without any select. Unknown ISBNs are not cached and always run a select.
+     */
+    Optional<Book> findByIsbn(String isbn);
+}
@@ -0,0 +1,25 @@
+package com.example.nplusone.repository;
+
+import com.example.nplusone.model.Book;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+class BookIsbnLookupImpl implements BookIsbnLookup {
+
+    private final EntityManager entityManager;
+
+    BookIsbnLookupImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Book> findByIsbn(String isbn) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Book.class)
+                .loadOptional(isbn);
+    }
+}
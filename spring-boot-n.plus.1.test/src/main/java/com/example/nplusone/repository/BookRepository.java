@@ -7,7 +7,7 @@ import org.springframework.lang.Nullable;
 import java.util.Optional;
 
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookIsbnLookup {
 
     Optional<Book> findBookByTitle(String title);
 
@@ -0,0 +1,11 @@
+package com.example.nplusone.repository;
+
+/**
+ * Doctor listing without the appointments and patients, only the selected columns are read.
+ */
+public interface DoctorName {
+
+    Long getId();
+
+    String getName();
+}
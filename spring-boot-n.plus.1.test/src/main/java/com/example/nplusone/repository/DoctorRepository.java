@@ -1,10 +1,64 @@
 package com.example.nplusone.repository;
 
 import com.example.nplusone.model.Doctor;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Appointments and patients are lazy. Each use case picks the fetch plan loading what it needs in one select,
+ * the returned doctors can then be used outside the transaction without LazyInitializationException.
+ * <p>
+ * The bulk deletes run one statement each, without loading the rows. Pending changes are flushed before and the
+ * persistence context is cleared after. Use {@code DoctorService} to delete doctors with their appointments and
+ * patients.
+ */
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
 //  List<Tutorial> findByPublished(boolean published);
 //
 //  List<Tutorial> findByTitleContaining(String title);
+
+  List<DoctorName> findAllByOrderByName();
+
+  @EntityGraph(Doctor.WITH_APPOINTMENTS)
+  Optional<Doctor> findWithAppointmentsById(Long id);
+
+  @EntityGraph(Doctor.WITH_APPOINTMENTS)
+  List<Doctor> findAllWithAppointmentsBy();
+
+  // Both collections are joined: the select returns appointments x patients rows per doctor
+  @EntityGraph(Doctor.WITH_APPOINTMENTS_AND_PATIENTS)
+  Optional<Doctor> findWithAppointmentsAndPatientsById(Long id);
+
+  @EntityGraph(Doctor.WITH_APPOINTMENTS_AND_PATIENTS)
+  List<Doctor> findAllWithAppointmentsAndPatientsBy();
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Appointment")
+  int deleteAllAppointmentsInBulk();
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Patient")
+  int deleteAllPatientsInBulk();
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Doctor")
+  int deleteAllDoctorsInBulk();
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Appointment a where a.doctor.id in :doctorIds")
+  int deleteAppointmentsInBulkByDoctorIdIn(Collection<Long> doctorIds);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Patient p where p.doctor.id in :doctorIds")
+  int deletePatientsInBulkByDoctorIdIn(Collection<Long> doctorIds);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Doctor d where d.id in :doctorIds")
+  int deleteDoctorsInBulkByIdIn(Collection<Long> doctorIds);
 }
@@ -0,0 +1,19 @@
+package com.example.nplusone.repository;
+
+import com.example.nplusone.model.Patient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * Count and exists checks on the patients of a doctor, without loading the doctor nor its patients.
+ */
+public interface PatientRepository extends JpaRepository<Patient, Long> {
+
+  // doctor.id is read from the foreign key column, without joining the doctor table
+
+  @Query("select count(p) from Patient p where p.doctor.id = :doctorId")
+  long countByDoctorId(Long doctorId);
+
+  @Query("select count(p) > 0 from Patient p where p.id = :id and p.doctor.id = :doctorId")
+  boolean existsByIdAndDoctorId(Long id, Long doctorId);
+}
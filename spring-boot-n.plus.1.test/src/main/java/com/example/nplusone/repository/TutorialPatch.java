@@ -0,0 +1,13 @@
+package com.example.nplusone.repository;
+
+/**
+ * Fields of a tutorial to update, null fields are left unchanged.
+ *
+ * @param version the version of the tutorial the patch was made from
+ */
+public record TutorialPatch(String title, String description, Boolean published, Long version) {
+
+    public boolean isEmpty() {
+        return title == null && description == null && published == null;
+    }
+}
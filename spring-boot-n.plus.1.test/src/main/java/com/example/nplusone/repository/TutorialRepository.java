@@ -1,12 +1,66 @@
 package com.example.nplusone.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import com.example.nplusone.model.Tutorial;
+import com.example.nplusone.published.PublishedTutorial;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface TutorialRepository extends JpaRepository<Tutorial, Long> {
-  List<Tutorial> findByPublished(boolean published);
+public interface TutorialRepository extends JpaRepository<Tutorial, Long>, TutorialUpdates {
+  /**
+   * Slices are read with one select of page size + 1 rows, without the count query of a {@code Page}.
+   */
+  Slice<Tutorial> findAllBy(Pageable pageable);
 
-  List<Tutorial> findByTitleContaining(String title);
+  Slice<Tutorial> findByPublished(boolean published, Pageable pageable);
+
+  List<PublishedTutorial> findByPublishedOrderById(boolean published);
+
+  Slice<Tutorial> findByTitleContaining(String title, Pageable pageable);
+
+  /**
+   * All tutorial texts, read in chunks of 1000 rows. The stream must be consumed and closed in a transaction.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  Stream<TutorialText> streamAllBy();
+
+  /**
+   * The tutorial as the published tutorials hold it, whether it is published or not.
+   */
+  Optional<PublishedTutorial> findSnapshotById(long id);
+
+  /**
+   * One delete statement, the entity listeners are not called: use {@code TutorialService}, which also updates the
+   * search index and the published tutorials.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Tutorial")
+  int deleteAllInBulk();
+
+  /**
+   * One update statement, which increments the version of the tutorials it publishes. The entity listeners are not
+   * called: use {@code TutorialService}, which also updates the published tutorials.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update versioned Tutorial t set t.published = true where t.id in :ids and t.published = false")
+  int publishInBulkByIdIn(Collection<Long> ids);
+
+  /**
+   * Same as {@link #publishInBulkByIdIn}, for the tutorials whose title contains the given text.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+      update versioned Tutorial t set t.published = true
+      where t.title like %?#{escape([0])}% escape ?#{escapeCharacter()} and t.published = false""")
+  int publishInBulkByTitleContaining(String title);
 }
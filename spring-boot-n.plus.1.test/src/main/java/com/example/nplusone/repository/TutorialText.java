@@ -0,0 +1,15 @@
+package com.example.nplusone.repository;
+
+/**
+ * Searchable text of a tutorial, read without managing the entity.
+ */
+public interface TutorialText {
+
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    long getVersion();
+}
@@ -0,0 +1,14 @@
+package com.example.nplusone.repository;
+
+public interface TutorialUpdates {
+
+    /**
+     * Sets the fields of the patch and increments the version with one update statement, without loading the
+     * tutorial, if it still has the version of the patch. The statement only sets the fields of the patch, and the
+     * entity listeners are not called: use {@code TutorialService}, which also updates the search index and the
+     * published tutorials.
+     *
+     * @return 1 if the tutorial was updated, 0 if it does not exist or has another version
+     */
+    int updateFields(long id, TutorialPatch patch);
+}
@@ -0,0 +1,44 @@
+package com.example.nplusone.repository;
+
+import com.example.nplusone.model.Tutorial;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.springframework.transaction.annotation.Transactional;
+
+class TutorialUpdatesImpl implements TutorialUpdates {
+
+    private final EntityManager entityManager;
+
+    TutorialUpdatesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public int updateFields(long id, TutorialPatch patch) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Tutorial> update = builder.createCriteriaUpdate(Tutorial.class);
+        Root<Tutorial> tutorial = update.from(Tutorial.class);
+        if (patch.title() != null) {
+            update.set(tutorial.<String>get("title"), patch.title());
+        }
+        if (patch.description() != null) {
+            update.set(tutorial.<String>get("description"), patch.description());
+        }
+        if (patch.published() != null) {
+            update.set(tutorial.<Boolean>get("published"), patch.published());
+        }
+        Path<Long> version = tutorial.get("version");
+        update.set(version, builder.sum(version, 1L));
+        update.where(builder.equal(tutorial.get("id"), id), builder.equal(version, patch.version()));
+
+        // like @Modifying(flushAutomatically = true, clearAutomatically = true)
+        entityManager.flush();
+        int updated = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.nplusone.search;
+
+import com.example.nplusone.repository.TutorialRepository;
+import com.example.nplusone.repository.TutorialText;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * {@link TutorialSearch} backed by an in-memory inverted index: for each word, the ids of the tutorials containing
+ * it, sorted, with a weight counting the occurrences of the word in the title three times.
+ * <p>
+ * A tutorial scores the sum, over the query words it contains, of its weight times the inverse document frequency
+ * of the word, so rare words count more than common ones. Matches are found by merging the sorted posting lists of
+ * the query words, and only the best {@code offset + size + 1} are kept.
+ * <p>
+ * The index is built from the database when the application starts, then kept up to date by
+ * {@link TutorialIndexListener}. Rows written with plain JDBC or bulk JPQL statements are not seen by the listener,
+ * call {@link #rebuild()} after such writes.
+ * <p>
+ * Updates are applied once their transaction commits, by the committing thread, so two transactions may apply theirs
+ * in the opposite order to their commits. The index keeps the entity version of each tutorial, and of each removed
+ * tutorial until the next rebuild, and ignores an update older than the one it holds.
+ */
+@Component
+public class InvertedIndexTutorialSearch implements TutorialSearch {
+
+    static final int TITLE_WEIGHT = 3;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private static final Comparator<Hit> RANK = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparingLong(Hit::tutorialId);
+
+    private final TutorialRepository tutorialRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postingsByWord = new HashMap<>();
+
+    private final Map<Long, IndexedTutorial> indexedTutorials = new HashMap<>();
+
+    private final Map<Long, Long> removedVersions = new HashMap<>();
+
+    public InvertedIndexTutorialSearch(TutorialRepository tutorialRepository) {
+        this.tutorialRepository = tutorialRepository;
+    }
+
+    @Override
+    public Slice<Long> search(String query, Pageable pageable) {
+        List<String> words = new ArrayList<>(tokenize(query).keySet());
+        int limit = Math.toIntExact(pageable.getOffset()) + pageable.getPageSize() + 1;
+        PriorityQueue<Hit> best = new PriorityQueue<>(RANK.reversed());
+
+        lock.readLock().lock();
+        try {
+            List<Postings> postings = new ArrayList<>(words.size());
+            List<Double> idfs = new ArrayList<>(words.size());
+            for (String word : words) {
+                Postings wordPostings = postingsByWord.get(word);
+                if (wordPostings != null) {
+                    postings.add(wordPostings);
+                    idfs.add(Math.log(1 + (double) indexedTutorials.size() / wordPostings.size));
+                }
+            }
+
+            int[] cursors = new int[postings.size()];
+            while (true) {
+                long tutorialId = Long.MAX_VALUE;
+                for (int i = 0; i < cursors.length; i++) {
+                    Postings wordPostings = postings.get(i);
+                    if (cursors[i] < wordPostings.size) {
+                        tutorialId = Math.min(tutorialId, wordPostings.ids[cursors[i]]);
+                    }
+                }
+                if (tutorialId == Long.MAX_VALUE) {
+                    break;
+                }
+                double score = 0;
+                for (int i = 0; i < cursors.length; i++) {
+                    Postings wordPostings = postings.get(i);
+                    if (cursors[i] < wordPostings.size && wordPostings.ids[cursors[i]] == tutorialId) {
+                        score += wordPostings.weights[cursors[i]] * idfs.get(i);
+                        cursors[i]++;
+                    }
+                }
+                // ids come in ascending order, so a later hit only beats an equal score of the worst kept hit if
+                // it scores higher
+                if (best.size() < limit) {
+                    best.add(new Hit(tutorialId, score));
+                } else if (score > best.peek().score()) {
+                    best.poll();
+                    best.add(new Hit(tutorialId, score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> ranked = new ArrayList<>(best);
+        ranked.sort(RANK);
+        boolean hasNext = ranked.size() == limit;
+        List<Long> page = ranked.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(Hit::tutorialId)
+                .toList();
+        return new SliceImpl<>(page, pageable, hasNext);
+    }
+
+    /**
+     * Adds the tutorial to the index, or replaces its words if it is already indexed, unless the index holds a later
+     * version of the tutorial.
+     */
+    public void index(long tutorialId, long version, String title, String description) {
+        Map<String, Integer> weights = tokenize(title);
+        weights.replaceAll((word, occurrences) -> occurrences * TITLE_WEIGHT);
+        tokenize(description).forEach((word, occurrences) -> weights.merge(word, occurrences, Integer::sum));
+
+        lock.writeLock().lock();
+        try {
+            if (isOlderThanIndexed(tutorialId, version)) {
+                return;
+            }
+            removeWords(tutorialId);
+            String[] words = new String[weights.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+                Postings postings = postingsByWord.computeIfAbsent(weight.getKey(), word -> new Postings());
+                postings.put(tutorialId, weight.getValue());
+                // the map key is shared instead of keeping one copy of the word per tutorial
+                words[i++] = weight.getKey();
+            }
+            indexedTutorials.put(tutorialId, new IndexedTutorial(version, words));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the tutorial deleted at the given version. Updates of this version or older are then ignored.
+     */
+    public void remove(long tutorialId, long version) {
+        lock.writeLock().lock();
+        try {
+            if (isOlderThanIndexed(tutorialId, version)) {
+                return;
+            }
+            removeWords(tutorialId);
+            removedVersions.put(tutorialId, version);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the index with the tutorials in the database. The rows are streamed, searches wait until the index
+     * is rebuilt. Runs in a transaction of its own, so that it reads the committed rows when called once another
+     * transaction commits.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try (Stream<TutorialText> tutorials = tutorialRepository.streamAllBy()) {
+            postingsByWord.clear();
+            indexedTutorials.clear();
+            removedVersions.clear();
+            tutorials.forEach(tutorial -> index(tutorial.getId(), tutorial.getVersion(), tutorial.getTitle(),
+                    tutorial.getDescription()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return indexedTutorials.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean isOlderThanIndexed(long tutorialId, long version) {
+        IndexedTutorial indexed = indexedTutorials.get(tutorialId);
+        if (indexed != null) {
+            return version < indexed.version();
+        }
+        Long removedVersion = removedVersions.get(tutorialId);
+        return removedVersion != null && version <= removedVersion;
+    }
+
+    private void removeWords(long tutorialId) {
+        IndexedTutorial indexed = indexedTutorials.remove(tutorialId);
+        if (indexed == null) {
+            return;
+        }
+        for (String word : indexed.words()) {
+            Postings postings = postingsByWord.get(word);
+            postings.remove(tutorialId);
+            if (postings.size == 0) {
+                postingsByWord.remove(word);
+            }
+        }
+    }
+
+    /**
+     * Lower-cased words of the text with their number of occurrences, in order of first occurrence.
+     */
+    static Map<String, Integer> tokenize(String text) {
+        Map<String, Integer> occurrences = new LinkedHashMap<>();
+        if (text != null) {
+            for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+                if (!word.isEmpty()) {
+                    occurrences.merge(word, 1, Integer::sum);
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    private record Hit(long tutorialId, double score) {
+    }
+
+    private record IndexedTutorial(long version, String[] words) {
+    }
+
+    /**
+     * Tutorial ids sorted in ascending order, with the weight of the word for each. Ids come from a sequence, so
+     * new tutorials are appended.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+
+        private int[] weights = new int[4];
+
+        private int size;
+
+        void put(long tutorialId, int weight) {
+            int index = size > 0 && ids[size - 1] < tutorialId
+                    ? -size - 1
+                    : Arrays.binarySearch(ids, 0, size, tutorialId);
+            if (index >= 0) {
+                weights[index] = weight;
+                return;
+            }
+            int insertion = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(ids, insertion, ids, insertion + 1, size - insertion);
+            System.arraycopy(weights, insertion, weights, insertion + 1, size - insertion);
+            ids[insertion] = tutorialId;
+            weights[insertion] = weight;
+            size++;
+        }
+
+        void remove(long tutorialId) {
+            int index = Arrays.binarySearch(ids, 0, size, tutorialId);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+            size--;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.nplusone.search;
+
+import com.example.nplusone.model.Tutorial;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps {@link InvertedIndexTutorialSearch} up to date with the tutorials written through JPA. Changes are applied
+ * once their transaction commits, so a rolled back tutorial is never found.
+ * <p>
+ * Hibernate creates the listener through Spring. The index is looked up lazily, as it depends on the repositories
+ * which depend on the entity manager factory this listener is part of.
+ */
+public class TutorialIndexListener {
+
+    private final ObjectProvider<InvertedIndexTutorialSearch> search;
+
+    public TutorialIndexListener(ObjectProvider<InvertedIndexTutorialSearch> search) {
+        this.search = search;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void tutorialSaved(Tutorial tutorial) {
+        long id = tutorial.getId();
+        long version = tutorial.getVersion();
+        String title = tutorial.getTitle();
+        String description = tutorial.getDescription();
+        afterCommit(() -> search.getObject().index(id, version, title, description));
+    }
+
+    @PostRemove
+    void tutorialRemoved(Tutorial tutorial) {
+        long id = tutorial.getId();
+        long version = tutorial.getVersion();
+        afterCommit(() -> search.getObject().remove(id, version));
+    }
+
+    private static void afterCommit(Runnable indexUpdate) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            indexUpdate.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                indexUpdate.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.nplusone.search;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Full-text search over the tutorial titles and descriptions, used instead of {@code LIKE '%term%'} queries that
+ * scan the whole table.
+ */
+public interface TutorialSearch {
+
+    /**
+     * Returns the ids of the tutorials matching any word of the query, best ranked first. The sort of the
+     * pageable is ignored.
+     */
+    Slice<Long> search(String query, Pageable pageable);
+}
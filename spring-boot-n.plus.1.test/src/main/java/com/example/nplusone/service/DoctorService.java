@@ -0,0 +1,46 @@
+package com.example.nplusone.service;
+
+import com.example.nplusone.repository.DoctorRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Deletes doctor graphs with three statements, whatever the number of rows: appointments, then patients, then
+ * doctors. {@code deleteAll} would load every doctor and cascade one delete per appointment, patient and doctor.
+ * <p>
+ * Managed doctors, appointments and patients are detached, after their pending changes are flushed.
+ */
+@Service
+public class DoctorService {
+
+    private final DoctorRepository doctorRepository;
+
+    public DoctorService(DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+
+    /**
+     * @return the number of doctors deleted
+     */
+    @Transactional
+    public int deleteAllInBulk() {
+        doctorRepository.deleteAllAppointmentsInBulk();
+        doctorRepository.deleteAllPatientsInBulk();
+        return doctorRepository.deleteAllDoctorsInBulk();
+    }
+
+    /**
+     * @return the number of doctors deleted
+     */
+    @Transactional
+    public int deleteInBulk(Collection<Long> doctorIds) {
+        if (doctorIds.isEmpty()) {
+            return 0;
+        }
+        doctorRepository.deleteAppointmentsInBulkByDoctorIdIn(doctorIds);
+        doctorRepository.deletePatientsInBulkByDoctorIdIn(doctorIds);
+        return doctorRepository.deleteDoctorsInBulkByIdIn(doctorIds);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.nplusone.service;
+
+import com.example.nplusone.model.Tutorial;
+import com.example.nplusone.published.PublishedTutorial;
+import com.example.nplusone.published.PublishedTutorials;
+import com.example.nplusone.repository.TutorialPatch;
+import com.example.nplusone.repository.TutorialRepository;
+import com.example.nplusone.search.InvertedIndexTutorialSearch;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.OptionalLong;
+
+@Service
+public class TutorialService {
+
+    private final TutorialRepository tutorialRepository;
+
+    private final InvertedIndexTutorialSearch tutorialSearch;
+
+    private final PublishedTutorials publishedTutorials;
+
+    public TutorialService(TutorialRepository tutorialRepository, InvertedIndexTutorialSearch tutorialSearch,
+                           PublishedTutorials publishedTutorials) {
+        this.tutorialRepository = tutorialRepository;
+        this.tutorialSearch = tutorialSearch;
+        this.publishedTutorials = publishedTutorials;
+    }
+
+    /**
+     * Deletes the tutorials with one statement, instead of loading them and deleting them one by one. The bulk delete
+     * skips the entity listeners: once it commits, the search index is rebuilt and the published tutorials are
+     * reloaded on next read. The index is rebuilt from the database rather than emptied, so that it keeps the
+     * tutorials other transactions committed in the meantime.
+     *
+     * @return the number of tutorials deleted
+     */
+    @Transactional
+    public int deleteAllInBulk() {
+        int deleted = tutorialRepository.deleteAllInBulk();
+        afterCommit(() -> {
+            tutorialSearch.rebuild();
+            publishedTutorials.invalidate();
+        });
+        return deleted;
+    }
+
+    /**
+     * Updates the fields of the patch with one statement, checking the version of the patch instead of loading the
+     * tutorial first. The update skips the entity listeners: once it commits, the search index gets the new text and
+     * the published tutorials get the patched tutorial. The fields the patch leaves unchanged are read back, in the
+     * same transaction, unless the patch sets them all or only unpublishes the tutorial.
+     *
+     * @return the new version of the tutorial, or empty if there is no tutorial with this id
+     * @throws ObjectOptimisticLockingFailureException if the tutorial was updated since the version of the patch
+     */
+    @Transactional
+    public OptionalLong patch(long id, TutorialPatch patch) {
+        if (tutorialRepository.updateFields(id, patch) == 0) {
+            if (tutorialRepository.existsById(id)) {
+                throw new ObjectOptimisticLockingFailureException(Tutorial.class, id);
+            }
+            return OptionalLong.empty();
+        }
+        long version = patch.version() + 1;
+        boolean textChanged = patch.title() != null || patch.description() != null;
+        if (!textChanged && Boolean.FALSE.equals(patch.published())) {
+            afterCommit(() -> publishedTutorials.apply(List.of(PublishedTutorial.unpublished(id, version))));
+            return OptionalLong.of(version);
+        }
+        PublishedTutorial patched = patch.title() != null && patch.description() != null && patch.published() != null
+                ? new PublishedTutorial(id, patch.title(), patch.description(), patch.published(), version)
+                : tutorialRepository.findSnapshotById(id).orElseThrow();
+        if (textChanged) {
+            afterCommit(() -> tutorialSearch.index(id, patched.version(), patched.title(), patched.description()));
+        }
+        afterCommit(() -> publishedTutorials.apply(List.of(patched.published()
+                ? patched
+                : PublishedTutorial.unpublished(id, version))));
+        return OptionalLong.of(version);
+    }
+
+    /**
+     * Publishes the tutorials with one statement, instead of loading and saving them one by one. Once it commits, the
+     * published tutorials are reloaded on next read: the rows the statement matched are not known.
+     *
+     * @return the number of tutorials published, those already published are not counted
+     */
+    @Transactional
+    public int publishInBulk(Collection<Long> tutorialIds) {
+        if (tutorialIds.isEmpty()) {
+            return 0;
+        }
+        return published(tutorialRepository.publishInBulkByIdIn(tutorialIds));
+    }
+
+    /**
+     * Same as {@link #publishInBulk(Collection)}, for the tutorials whose title contains the given text.
+     */
+    @Transactional
+    public int publishInBulkByTitle(String title) {
+        return published(tutorialRepository.publishInBulkByTitleContaining(title));
+    }
+
+    private int published(int count) {
+        if (count > 0) {
+            afterCommit(publishedTutorials::invalidate);
+        }
+        return count;
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.nplusone.sqllog;
+
+import com.example.nplusone.detector.SqlFingerprint;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * datasource-proxy listener logging the executed statements, with their bind values and elapsed time, from a
+ * background writer thread. The JDBC thread only copies the statement into a bounded queue: the formatting and the
+ * logging happen on the writer thread, and a statement is dropped rather than waited for when the queue is full.
+ * <p>
+ * Statements below the slow threshold are skipped, the others are sampled, then rate limited per fingerprint so that
+ * a statement repeated in a loop does not flood the log.
+ */
+public class AsyncSqlLogger implements QueryExecutionListener, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncSqlLogger.class);
+
+    private final SqlLogProperties properties;
+
+    private final Consumer<SqlLogEntry> writer;
+
+    private final BlockingQueue<SqlLogEntry> queue;
+
+    // by SQL string, Hibernate sends the same string for each execution, so the fingerprint is computed once
+    private final Map<String, RateLimit> rateLimitsBySql = new ConcurrentHashMap<>();
+
+    private final Map<String, RateLimit> rateLimitsByFingerprint = new ConcurrentHashMap<>();
+
+    private final RateLimit overflowRateLimit = new RateLimit();
+
+    private final LongAdder loggedCount = new LongAdder();
+
+    private final LongAdder rateLimitedCount = new LongAdder();
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private volatile Thread writerThread;
+
+    public AsyncSqlLogger(SqlLogProperties properties) {
+        this(properties, entry -> LOGGER.info(entry.format()));
+    }
+
+    /**
+     * @param writer called on the writer thread with each statement to log
+     */
+    public AsyncSqlLogger(SqlLogProperties properties, Consumer<SqlLogEntry> writer) {
+        this.properties = properties;
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    public synchronized void start() {
+        if (writerThread != null) {
+            return;
+        }
+        writerThread = new Thread(this::writeEntries, "sql-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Stops the writer thread once it has written the statements already queued.
+     */
+    @Override
+    public synchronized void close() throws InterruptedException {
+        Thread thread = writerThread;
+        if (thread == null) {
+            return;
+        }
+        writerThread = null;
+        thread.interrupt();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < properties.getSlowThreshold().toMillis()) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            double sampleRate = properties.getSampleRate();
+            if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+                continue;
+            }
+            if (!rateLimit(queryInfo.getQuery()).tryAcquire(System.currentTimeMillis() / 1000,
+                    properties.getMaxPerFingerprintPerSecond())) {
+                rateLimitedCount.increment();
+                continue;
+            }
+            SqlLogEntry entry = new SqlLogEntry(Thread.currentThread().getName(), queryInfo.getQuery(),
+                    parameters(queryInfo), Math.max(1, queryInfo.getParametersList().size()), execInfo.getElapsedTime(),
+                    execInfo.isSuccess());
+            if (!queue.offer(entry)) {
+                droppedCount.increment();
+            }
+        }
+    }
+
+    private RateLimit rateLimit(String sql) {
+        RateLimit rateLimit = rateLimitsBySql.get(sql);
+        if (rateLimit != null) {
+            return rateLimit;
+        }
+        if (rateLimitsBySql.size() >= properties.getMaxFingerprints()) {
+            // statements with inlined values, each one would add an entry
+            return overflowRateLimit;
+        }
+        rateLimit = rateLimitsByFingerprint.computeIfAbsent(SqlFingerprint.of(sql), fingerprint -> new RateLimit());
+        rateLimitsBySql.putIfAbsent(sql, rateLimit);
+        return rateLimit;
+    }
+
+    private List<Object> parameters(QueryInfo queryInfo) {
+        if (!properties.isLogParameters() || queryInfo.getParametersList().isEmpty()) {
+            return List.of();
+        }
+        List<ParameterSetOperation> operations = new ArrayList<>(queryInfo.getParametersList().get(0));
+        // by parameter index, named parameters of a CallableStatement keep their order
+        operations.sort(Comparator.comparingInt(operation ->
+                operation.getArgs()[0] instanceof Integer index ? index : 0));
+        List<Object> parameters = new ArrayList<>(operations.size());
+        for (ParameterSetOperation operation : operations) {
+            Object[] args = operation.getArgs();
+            boolean isNull = ParameterSetOperation.isSetNullParameterOperation(operation) || args.length < 2;
+            parameters.add(isNull ? null : args[1]);
+        }
+        return parameters;
+    }
+
+    private void writeEntries() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                write(queue.take());
+            }
+        } catch (InterruptedException e) {
+            // closing, the queued statements are written below
+        }
+        SqlLogEntry entry;
+        while ((entry = queue.poll()) != null) {
+            write(entry);
+        }
+    }
+
+    private void write(SqlLogEntry entry) {
+        try {
+            writer.accept(entry);
+            loggedCount.increment();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not log {}", entry.sql(), e);
+        }
+    }
+
+    public long getLoggedCount() {
+        return loggedCount.sum();
+    }
+
+    /**
+     * Statements not logged because their fingerprint reached its limit for the second.
+     */
+    public long getRateLimitedCount() {
+        return rateLimitedCount.sum();
+    }
+
+    /**
+     * Statements not logged because the queue was full.
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    private static class RateLimit {
+
+        private long second;
+
+        private int count;
+
+        synchronized boolean tryAcquire(long currentSecond, int maxPerSecond) {
+            if (currentSecond != second) {
+                second = currentSecond;
+                count = 0;
+            }
+            if (count >= maxPerSecond) {
+                return false;
+            }
+            count++;
+            return true;
+        }
+    }
+}
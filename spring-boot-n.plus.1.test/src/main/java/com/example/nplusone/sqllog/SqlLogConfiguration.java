@@ -0,0 +1,25 @@
+package com.example.nplusone.sqllog;
+
+import com.example.nplusone.config.ProxyDataSources;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SqlLogProperties.class)
+@ConditionalOnProperty(prefix = "sql.log", name = "enabled", matchIfMissing = true)
+public class SqlLogConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public AsyncSqlLogger asyncSqlLogger(SqlLogProperties properties) {
+        return new AsyncSqlLogger(properties);
+    }
+
+    @Bean
+    static BeanPostProcessor asyncSqlLoggerDataSourceWrapper(ObjectProvider<AsyncSqlLogger> sqlLogger) {
+        return ProxyDataSources.listenerPostProcessor("AsyncSqlLogger", sqlLogger);
+    }
+}
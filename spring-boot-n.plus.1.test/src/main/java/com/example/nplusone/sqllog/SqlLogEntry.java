@@ -0,0 +1,29 @@
+package com.example.nplusone.sqllog;
+
+import java.util.List;
+
+/**
+ * One executed statement, captured on the JDBC thread and formatted by the writer thread.
+ *
+ * @param parameters bind values in index order, of the first parameter set for a batch, empty if not logged
+ * @param batchSize parameter sets executed, 1 for a statement executed on its own
+ */
+public record SqlLogEntry(String thread, String sql, List<Object> parameters, int batchSize, long elapsedMillis,
+                          boolean success) {
+
+    public String format() {
+        StringBuilder line = new StringBuilder(sql.length() + 64);
+        line.append(elapsedMillis).append(" ms [").append(thread).append("] ");
+        if (!success) {
+            line.append("FAILED ");
+        }
+        line.append(sql);
+        if (!parameters.isEmpty()) {
+            line.append(" ").append(parameters);
+        }
+        if (batchSize > 1) {
+            line.append(" (batch of ").append(batchSize).append(")");
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.nplusone.sqllog;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "sql.log")
+public class SqlLogProperties {
+
+    /** Wraps the DataSource with the SQL logger. */
+    private boolean enabled = true;
+
+    /** Statements faster than this are not logged, 0 logs them all. */
+    private Duration slowThreshold = Duration.ofMillis(100);
+
+    /** Share of the statements that are logged, between 0 and 1. */
+    private double sampleRate = 1.0;
+
+    /** Statements logged per fingerprint and second, the next ones in the same second are dropped. */
+    private int maxPerFingerprintPerSecond = 20;
+
+    /** Distinct fingerprints rate limited on their own, the next ones share one limit. */
+    private int maxFingerprints = 1000;
+
+    /** Statements waiting for the writer thread, the next ones are dropped. */
+    private int queueCapacity = 10_000;
+
+    /** Logs the bind values, of the first parameter set for a batch. */
+    private boolean logParameters = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    public void setSlowThreshold(Duration slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public int getMaxPerFingerprintPerSecond() {
+        return maxPerFingerprintPerSecond;
+    }
+
+    public void setMaxPerFingerprintPerSecond(int maxPerFingerprintPerSecond) {
+        this.maxPerFingerprintPerSecond = maxPerFingerprintPerSecond;
+    }
+
+    public int getMaxFingerprints() {
+        return maxFingerprints;
+    }
+
+    public void setMaxFingerprints(int maxFingerprints) {
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public boolean isLogParameters() {
+        return logParameters;
+    }
+
+    public void setLogParameters(boolean logParameters) {
+        this.logParameters = logParameters;
+    }
+}
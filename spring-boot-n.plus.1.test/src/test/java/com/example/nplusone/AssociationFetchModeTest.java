@@ -0,0 +1,96 @@
+package com.example.nplusone;
+
+import com.example.nplusone.config.MyTestConfig;
+import com.example.nplusone.model.Appointment;
+import com.example.nplusone.model.Doctor;
+import com.example.nplusone.model.Patient;
+import com.example.nplusone.repository.DoctorRepository;
+import com.example.nplusone.service.DoctorService;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"spring.datasource.url=jdbc:h2:mem:fetchmode;DB_CLOSE_ON_EXIT=FALSE",
+		"fetch.associations[Doctor.appointments].mode=batch",
+		"fetch.associations[Doctor.appointments].batch-size=2",
+		"fetch.associations[Doctor.patients].mode=subselect"
+})
+@Import(MyTestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AssociationFetchModeTest {
+
+	private static final int DOCTOR_COUNT = 5;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private DoctorService doctorService;
+
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeAll
+	void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		List<Doctor> doctors = new LinkedList<>();
+		for (int i = 1; i <= DOCTOR_COUNT; i++) {
+			Doctor doctor = new Doctor();
+			doctor.setName("House" + i);
+			doctor.addAppointment(new Appointment());
+			doctor.addAppointment(new Appointment());
+			doctor.addPatient(new Patient("P1"));
+			doctor.addPatient(new Patient("P2"));
+			doctors.add(doctor);
+		}
+		doctorRepository.saveAll(doctors);
+	}
+
+	@BeforeEach
+	public void beforeEach() {
+		QueryCountHolder.clear();
+	}
+
+	@AfterAll
+	void cleanUp() {
+		doctorService.deleteAllInBulk();
+	}
+
+	@Test
+	void testBatchFetching() {
+		transactionTemplate.executeWithoutResult(status -> {
+			List<Doctor> doctors = doctorRepository.findAll();
+			for (Doctor doctor : doctors) {
+				assertThat(doctor.getAppointments()).hasSize(2);
+			}
+		});
+
+		// The doctors, then the appointments of 2 + 2 + 1 doctors
+		assertThat(QueryCountHolder.getGrandTotal().getSelect()).isEqualTo(1 + 3);
+	}
+
+	@Test
+	void testSubselectFetching() {
+		transactionTemplate.executeWithoutResult(status -> {
+			List<Doctor> doctors = doctorRepository.findAll();
+			for (Doctor doctor : doctors) {
+				assertThat(doctor.getPatients()).hasSize(2);
+			}
+		});
+
+		// The doctors, then the patients of all of them, selected with the doctor query as a subselect
+		assertThat(QueryCountHolder.getGrandTotal().getSelect()).isEqualTo(1 + 1);
+	}
+}
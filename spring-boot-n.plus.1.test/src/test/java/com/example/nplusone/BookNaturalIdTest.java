@@ -0,0 +1,91 @@
+package com.example.nplusone;
+
+import com.example.nplusone.config.TestDataSourceConfig;
+import com.example.nplusone.model.Book;
+import com.example.nplusone.querybudget.ExpectSelects;
+import com.example.nplusone.repository.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.url=jdbc:h2:mem:books;DB_CLOSE_ON_EXIT=FALSE")
+@Import(TestDataSourceConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BookNaturalIdTest {
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    void setup() {
+        for (int i = 0; i < 3; i++) {
+            Book book = new Book();
+            book.setIsbn("978-0-00-00000" + i);
+            book.setTitle("Title " + i);
+            bookRepository.save(book);
+        }
+    }
+
+    @BeforeEach
+    void emptyCache() {
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        bookRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @ExpectSelects(1)
+    void testFirstLookupSelectsTheBook() {
+        Optional<Book> book = bookRepository.findByIsbn("978-0-00-000001");
+
+        assertTrue(book.isPresent());
+        assertEquals("Title 1", book.get().getTitle());
+    }
+
+    @Test
+    @ExpectSelects(1)
+    void testRepeatLookupsRunNoSelect() {
+        // only the first lookup selects
+        for (int i = 0; i < 10; i++) {
+            Optional<Book> book = bookRepository.findByIsbn("978-0-00-000002");
+            assertEquals("Title 2", book.orElseThrow().getTitle());
+        }
+    }
+
+    @Test
+    @ExpectSelects(1)
+    void testUpdatedBookIsServedFromTheCache() {
+        // the first lookup selects, the merges and the lookup after the update read the cache
+        Book book = bookRepository.findByIsbn("978-0-00-000000").orElseThrow();
+        book.setTitle("New title");
+        bookRepository.save(book);
+
+        assertEquals("New title", bookRepository.findByIsbn("978-0-00-000000").orElseThrow().getTitle());
+        book.setTitle("Title 0");
+        bookRepository.save(book);
+    }
+
+    @Test
+    @ExpectSelects(2)
+    void testUnknownIsbnIsNotCached() {
+        assertFalse(bookRepository.findByIsbn("unknown").isPresent());
+        assertFalse(bookRepository.findByIsbn("unknown").isPresent());
+    }
+}
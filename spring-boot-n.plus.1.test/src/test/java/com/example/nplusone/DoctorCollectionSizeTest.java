@@ -0,0 +1,160 @@
+package com.example.nplusone;
+
+import com.example.nplusone.config.MyTestConfig;
+import com.example.nplusone.model.Appointment;
+import com.example.nplusone.model.Doctor;
+import com.example.nplusone.querybudget.ExpectSelects;
+import com.example.nplusone.repository.AppointmentRepository;
+import com.example.nplusone.repository.DoctorRepository;
+import com.example.nplusone.repository.PatientRepository;
+import com.example.nplusone.service.DoctorService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Size and contains checks on a doctor with 50k appointments run a count or exists select, and leave the
+ * appointments out of the persistence context.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+		properties = "spring.datasource.url=jdbc:h2:mem:collectionsize;DB_CLOSE_ON_EXIT=FALSE")
+@Import(MyTestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DoctorCollectionSizeTest {
+
+	private static final int LARGE_APPOINTMENT_COUNT = 50_000;
+
+	private static final int SMALL_APPOINTMENT_COUNT = 5;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@Autowired
+	private DoctorService doctorService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transactionTemplate;
+
+	private Long largeDoctorId;
+
+	private Long smallDoctorId;
+
+	private Long largeDoctorAppointmentId;
+
+	private Long smallDoctorAppointmentId;
+
+	@BeforeAll
+	void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		largeDoctorId = insertDoctor("Large", LARGE_APPOINTMENT_COUNT);
+		smallDoctorId = insertDoctor("Small", SMALL_APPOINTMENT_COUNT);
+		largeDoctorAppointmentId = firstAppointmentId(largeDoctorId);
+		smallDoctorAppointmentId = firstAppointmentId(smallDoctorId);
+	}
+
+	@AfterAll
+	void cleanUp() {
+		doctorService.deleteAllInBulk();
+	}
+
+	@Test
+	@ExpectSelects(2)
+	void testSizeIsACountSelect() {
+		int size = transactionTemplate.execute(status -> {
+			Doctor doctor = doctorRepository.findById(largeDoctorId).orElseThrow();
+			int count = doctor.countAppointments();
+			assertThat(Hibernate.isInitialized(doctor.getAppointments())).isFalse();
+			return count;
+		});
+
+		assertThat(size).isEqualTo(LARGE_APPOINTMENT_COUNT);
+	}
+
+	@Test
+	@ExpectSelects(3)
+	void testContainsIsAnExistsSelect() {
+		transactionTemplate.executeWithoutResult(status -> {
+			Doctor doctor = doctorRepository.findById(largeDoctorId).orElseThrow();
+
+			assertThat(doctor.hasAppointment(entityManager.getReference(Appointment.class, largeDoctorAppointmentId))).isTrue();
+			assertThat(doctor.hasAppointment(entityManager.getReference(Appointment.class, smallDoctorAppointmentId))).isFalse();
+			assertThat(Hibernate.isInitialized(doctor.getAppointments())).isFalse();
+		});
+	}
+
+	@Test
+	void testSizeAllocationIsFarBelowLoadingTheCollection() {
+		// first calls compile the queries
+		countAppointments(smallDoctorId);
+		appointmentRepository.countByDoctorId(smallDoctorId);
+
+		// H2 runs in process, its index scan for the count is part of the allocated bytes
+		long counted = allocatedBytes(() -> countAppointments(largeDoctorId));
+		long countedFromRepository = allocatedBytes(() -> appointmentRepository.countByDoctorId(largeDoctorId));
+		long loaded = allocatedBytes(() -> transactionTemplate.execute(status ->
+				(long) doctorRepository.findById(largeDoctorId).orElseThrow().getAppointments().size()));
+
+		assertThat(counted).isLessThan(loaded / 20);
+		assertThat(countedFromRepository).isLessThan(loaded / 20);
+	}
+
+	@Test
+	@ExpectSelects(4)
+	void testRepositoryChecksDoNotLoadTheDoctor() {
+		assertThat(appointmentRepository.countByDoctorId(largeDoctorId)).isEqualTo(LARGE_APPOINTMENT_COUNT);
+		assertThat(appointmentRepository.existsByIdAndDoctorId(largeDoctorAppointmentId, largeDoctorId)).isTrue();
+		assertThat(appointmentRepository.existsByIdAndDoctorId(largeDoctorAppointmentId, smallDoctorId)).isFalse();
+		assertThat(patientRepository.countByDoctorId(smallDoctorId)).isZero();
+	}
+
+	private long countAppointments(Long doctorId) {
+		return transactionTemplate.execute(status -> (long) doctorRepository.findById(doctorId).orElseThrow().countAppointments());
+	}
+
+	private Long insertDoctor(String name, int appointmentCount) {
+		Doctor doctor = new Doctor();
+		doctor.setName(name);
+		Long doctorId = doctorRepository.save(doctor).getId();
+		jdbcTemplate.update("INSERT INTO appointment (id, appointment_time, doctor_id)"
+				+ " SELECT NEXT VALUE FOR appointment_seq, CURRENT_TIMESTAMP, ? FROM SYSTEM_RANGE(1, ?)",
+				doctorId, appointmentCount);
+		return doctorId;
+	}
+
+	private Long firstAppointmentId(Long doctorId) {
+		return jdbcTemplate.queryForObject("SELECT MIN(id) FROM appointment WHERE doctor_id = ?", Long.class, doctorId);
+	}
+
+	private static long allocatedBytes(LongSupplier action) {
+		com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long before = threadMXBean.getCurrentThreadAllocatedBytes();
+		action.getAsLong();
+		return threadMXBean.getCurrentThreadAllocatedBytes() - before;
+	}
+}
@@ -0,0 +1,109 @@
+package com.example.nplusone;
+
+import com.example.nplusone.config.MyTestConfig;
+import com.example.nplusone.model.Appointment;
+import com.example.nplusone.model.Doctor;
+import com.example.nplusone.model.Patient;
+import com.example.nplusone.repository.DoctorName;
+import com.example.nplusone.repository.DoctorRepository;
+import com.example.nplusone.service.DoctorService;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Each DoctorRepository fetch plan loads what its use case needs in one select. The doctors are read outside
+ * of any transaction, so an association the plan did not load would throw LazyInitializationException.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Import(MyTestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DoctorFetchPlanTest {
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private DoctorService doctorService;
+
+	private Long firstDoctorId;
+
+	@BeforeAll
+	void setUp() {
+		doctorService.deleteAllInBulk();
+		List<Doctor> doctors = new LinkedList<>();
+		for (int i = 1; i < 4; i++) {
+			Doctor doctor = new Doctor();
+			doctor.setName("House" + i);
+			for (int j = 1; j < 6; j++) {
+				doctor.addAppointment(new Appointment());
+				doctor.addPatient(new Patient("P" + j));
+			}
+			doctors.add(doctor);
+		}
+		firstDoctorId = doctorRepository.saveAll(doctors).get(0).getId();
+	}
+
+	@BeforeEach
+	public void beforeEach() {
+		QueryCountHolder.clear();
+	}
+
+	@AfterAll
+	void cleanUp() {
+		doctorService.deleteAllInBulk();
+	}
+
+	@Test
+	void testNamesOnly() {
+		List<DoctorName> doctorNames = doctorRepository.findAllByOrderByName();
+
+		assertThat(doctorNames).extracting(DoctorName::getName).containsExactly("House1", "House2", "House3");
+		assertThat(QueryCountHolder.getGrandTotal().getSelect()).isEqualTo(1);
+	}
+
+	@Test
+	void testDoctorWithAppointments() {
+		Doctor doctor = doctorRepository.findWithAppointmentsById(firstDoctorId).orElseThrow();
+
+		assertThat(doctor.getAppointments()).hasSize(5);
+		assertThat(Hibernate.isInitialized(doctor.getPatients())).isFalse();
+		assertThat(QueryCountHolder.getGrandTotal().getSelect()).isEqualTo(1);
+	}
+
+	@Test
+	void testAllDoctorsWithAppointments() {
+		List<Doctor> doctors = doctorRepository.findAllWithAppointmentsBy();
+
+		assertThat(doctors).hasSize(3).allSatisfy(doctor -> assertThat(doctor.getAppointments()).hasSize(5));
+		assertThat(QueryCountHolder.getGrandTotal().getSelect()).isEqualTo(1);
+	}
+
+	@Test
+	void testFullDoctor() {
+		Doctor doctor = doctorRepository.findWithAppointmentsAndPatientsById(firstDoctorId).orElseThrow();
+
+		assertThat(doctor.getAppointments()).hasSize(5);
+		assertThat(doctor.getPatients()).hasSize(5);
+		assertThat(QueryCountHolder.getGrandTotal().getSelect()).isEqualTo(1);
+	}
+
+	@Test
+	void testAllFullDoctors() {
+		List<Doctor> doctors = doctorRepository.findAllWithAppointmentsAndPatientsBy();
+
+		assertThat(doctors).hasSize(3).allSatisfy(doctor -> {
+			assertThat(doctor.getAppointments()).hasSize(5);
+			assertThat(doctor.getPatients()).hasSize(5);
+		});
+		assertThat(QueryCountHolder.getGrandTotal().getSelect()).isEqualTo(1);
+	}
+}
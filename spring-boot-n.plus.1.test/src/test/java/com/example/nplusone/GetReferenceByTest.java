@@ -2,10 +2,9 @@ package com.example.nplusone;
 
 import com.example.nplusone.config.TestDataSourceConfig;
 import com.example.nplusone.model.Book;
+import com.example.nplusone.querybudget.ExpectSelects;
 import com.example.nplusone.repository.MyBookRepository;
 import com.example.nplusone.service.BookService;
-import net.ttddyy.dsproxy.QueryCount;
-import net.ttddyy.dsproxy.QueryCountHolder;
 import org.hibernate.LazyInitializationException;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +15,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,6 +35,9 @@ public class GetReferenceByTest {
     @Autowired
     BookService bookService;
 
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
     private Long id = 0L;
 
     @BeforeAll
@@ -46,46 +49,39 @@ public class GetReferenceByTest {
         id = saved.getId();
     }
 
+    // Books are in the second-level cache, start each test from the database
     @BeforeEach
-    public void resetDataSourceCounter() {
-        QueryCountHolder.clear();
+    void emptySecondLevelCache() {
+        entityManagerFactory.getCache().evictAll();
     }
 
     @Test
+    @ExpectSelects(1)
     void testFindById() {
         Optional<Book> byId = bookRepository.findById(id);
 
-        QueryCount queryCount = QueryCountHolder.getGrandTotal();
-        long selectCount = queryCount.getSelect();
         assertTrue(byId.isPresent());
-        assertEquals(1, selectCount);
     }
 
     @Test
+    @ExpectSelects(0)
     void testGetById() {
         Book byId = bookRepository.getReferenceById(id);
-        QueryCount queryCount = QueryCountHolder.getGrandTotal();
-        long selectCount = queryCount.getSelect();
         assertNotNull(byId);
-        assertEquals(0, selectCount);
     }
 
     @Test
+    @ExpectSelects(0)
     void testReferenceById() {
         Book byId = bookRepository.getReferenceById(id);
-        QueryCount queryCount = QueryCountHolder.getGrandTotal();
-        long selectCount = queryCount.getSelect();
         assertNotNull(byId);
-        assertEquals(0, selectCount);
     }
 
     @Test
+    @ExpectSelects(0)
     void testReferenceById2() {
         Book byId = entityManager.getReference(Book.class, id + 1);
-        QueryCount queryCount = QueryCountHolder.getGrandTotal();
-        long selectCount = queryCount.getSelect();
         assertNotNull(byId);
-        assertEquals(0, selectCount);
     }
 
     @Test
@@ -99,27 +95,21 @@ public class GetReferenceByTest {
     }
 
     @Test
+    @ExpectSelects(1)
     void testServiceFindById() {
         bookService.findById(id);
-        QueryCount queryCount = QueryCountHolder.getGrandTotal();
-        long selectCount = queryCount.getSelect();
-        assertEquals(1, selectCount);
     }
 
     @Test
+    @ExpectSelects(0)
     void testServiceGetById() {
         bookService.getById(id);
-        QueryCount queryCount = QueryCountHolder.getGrandTotal();
-        long selectCount = queryCount.getSelect();
-        assertEquals(0, selectCount);
     }
 
     @Test
+    @ExpectSelects(0)
     void testServiceGetReferenceById() {
         bookService.getReferenceById(id);
-        QueryCount queryCount = QueryCountHolder.getGrandTotal();
-        long selectCount = queryCount.getSelect();
-        assertEquals(0, selectCount);
     }
 
     @Test
@@ -4,10 +4,9 @@ import com.example.nplusone.config.MyTestConfig;
 import com.example.nplusone.model.Appointment;
 import com.example.nplusone.model.Doctor;
 import com.example.nplusone.model.Patient;
+import com.example.nplusone.querybudget.ExpectSelects;
 import com.example.nplusone.repository.DoctorRepository;
-import net.ttddyy.dsproxy.QueryCount;
-import net.ttddyy.dsproxy.QueryCountHolder;
-import org.assertj.core.api.Assertions;
+import com.example.nplusone.service.DoctorService;
 import org.hibernate.annotations.QueryHints;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +34,9 @@ class NPlus1DetectionTest {
 	@Autowired
 	private DoctorRepository doctorRepository;
 
+	@Autowired
+	private DoctorService doctorService;
+
 	@Autowired
 	private EntityManager entityManager;
 
@@ -65,17 +67,13 @@ class NPlus1DetectionTest {
 
 	}
 
-	@BeforeEach
-	public void beforeEach(){
-		QueryCountHolder.clear();
-	}
-
 	@AfterAll
 	void cleanUp(){
-		doctorRepository.deleteAll();
+		doctorService.deleteAllInBulk();
 	}
 
 	@Test
+	@ExpectSelects(N + 1)  // For fetch = LAZY, 1 for fetch = EAGER
 	public void testFindById() {
 		transactionTemplate.execute(status -> {
 			System.out.println("--------------------------------------------------------------------------------------");
@@ -91,14 +89,10 @@ class NPlus1DetectionTest {
 			}
 			return doctors;
 		});
-
-		QueryCount queryCount = QueryCountHolder.getGrandTotal();
-		long selectCount = queryCount.getSelect();
-//		Assertions.assertThat(selectCount).isEqualTo(N +1);  // For fetch = LAZY
-		Assertions.assertThat(selectCount).isEqualTo(1);  // For fetch = EAGER
 	}
 
 	@Test
+	@ExpectSelects(3*N + 1)  // For fetch = LAZY list returns 3 records with N relations, same for EAGER
 	public void testFindAll() {
 		transactionTemplate.execute(status -> {
 			System.out.println("--------------------------------------------------------------------------------------");
@@ -113,24 +107,16 @@ class NPlus1DetectionTest {
 			}
 			return doctors;
 		});
-
-		QueryCount queryCount = QueryCountHolder.getGrandTotal();
-		long selectCount = queryCount.getSelect();
-//		assertThat(selectCount).isEqualTo(3*N + 1);  // For fetch = LAZY list returns 3 records with N relations
-		assertThat(selectCount).isEqualTo(3*N + 1);  // For fetch = EAGER list returns 3 records with N relations
-
 	}
 
 	@Test
+	@ExpectSelects(1)  // For fetch = LAZY does not load lazy relations, 3*N + 1 for fetch = EAGER
 	void testQueryMethod1() {
 		List<Doctor> doctors = entityManager.createQuery("select d from Doctor d", Doctor.class).getResultList();
-		QueryCount queryCount = QueryCountHolder.getGrandTotal();
-		long selectCount = queryCount.getSelect();
-//		assertThat(selectCount).isEqualTo(1);       // For fetch = LAZY does not load lazy relations only loads main entity
-		assertThat(selectCount).isEqualTo(3*N + 1); // For fetch = EAGER list returns 3 records with N relations
 	}
 
 	@Test
+	@ExpectSelects(3*N + 1)  // For fetch = LAZY list returns 3 records with N relations, same for EAGER
 	public void testQueryMethod() {
 		transactionTemplate.execute(status -> {
 			System.out.println("--------------------------------------------------------------------------------------");
@@ -145,15 +131,10 @@ class NPlus1DetectionTest {
 			}
 			return doctors;
 		});
-
-		QueryCount queryCount = QueryCountHolder.getGrandTotal();
-		long selectCount = queryCount.getSelect();
-//		assertThat(selectCount).isEqualTo(3*N + 1);  // For fetch = LAZY list returns 3 records with N relations
-		assertThat(selectCount).isEqualTo(3*N + 1);  // For fetch = EAGER list returns 3 records with N relations
-
 	}
 
 	@Test
+	@ExpectSelects(1)  // For fetch = LAZY and EAGER
 	public void testQueryWithJoinFetch() {
 		transactionTemplate.execute(status -> {
 			System.out.println("--------------------------------------------------------------------------------------");
@@ -169,15 +150,10 @@ class NPlus1DetectionTest {
 			}
 			return doctors;
 		});
-
-		QueryCount queryCount = QueryCountHolder.getGrandTotal();
-		long selectCount = queryCount.getSelect();
-//		assertThat(selectCount).isEqualTo(1);  // For fetch = LAZY list returns 3 records with N relations
-		assertThat(selectCount).isEqualTo(1);  // For fetch = EAGER list returns 3 records with N relations
-
 	}
 
 	@Test
+	@ExpectSelects(1)  // For fetch = LAZY and EAGER
 	public void testQueryWithDistinct() {
 		transactionTemplate.execute(status -> {
 			System.out.println("--------------------------------------------------------------------------------------");
@@ -194,11 +170,5 @@ class NPlus1DetectionTest {
 			}
 			return doctors;
 		});
-
-		QueryCount queryCount = QueryCountHolder.getGrandTotal();
-		long selectCount = queryCount.getSelect();
-//		assertThat(selectCount).isEqualTo(1);  // For fetch = LAZY list returns 3 records with N relations
-		assertThat(selectCount).isEqualTo(1);  // For fetch = EAGER list returns 3 records with N relations
-
 	}
 }
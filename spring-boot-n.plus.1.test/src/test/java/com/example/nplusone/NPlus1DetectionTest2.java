@@ -5,6 +5,7 @@ import com.example.nplusone.model.Appointment;
 import com.example.nplusone.model.Doctor;
 import com.example.nplusone.model.Patient;
 import com.example.nplusone.repository.DoctorRepository;
+import com.example.nplusone.service.DoctorService;
 import net.ttddyy.dsproxy.QueryCount;
 import net.ttddyy.dsproxy.QueryCountHolder;
 import org.assertj.core.api.Assertions;
@@ -36,6 +37,9 @@ class NPlus1DetectionTest2 {
     @Autowired
     private DoctorRepository doctorRepository;
 
+    @Autowired
+    private DoctorService doctorService;
+
     @Autowired
     private EntityManager entityManager;
 
@@ -73,7 +77,7 @@ class NPlus1DetectionTest2 {
 
     @AfterAll
     void cleanUp() {
-        doctorRepository.deleteAll();
+        doctorService.deleteAllInBulk();
     }
 
     @Test
@@ -95,8 +99,8 @@ class NPlus1DetectionTest2 {
 
         QueryCount queryCount = QueryCountHolder.getGrandTotal();
         long selectCount = queryCount.getSelect();
-//		Assertions.assertThat(selectCount).isEqualTo(N +1);  // For fetch = LAZY
-        Assertions.assertThat(selectCount).isEqualTo(1);  // For fetch = EAGER
+        Assertions.assertThat(selectCount).isEqualTo(N + 1);  // For fetch = LAZY
+//		Assertions.assertThat(selectCount).isEqualTo(1);  // For fetch = EAGER
     }
 
     @Test
@@ -117,8 +121,8 @@ class NPlus1DetectionTest2 {
 
         QueryCount queryCount = QueryCountHolder.getGrandTotal();
         long selectCount = queryCount.getSelect();
-//		assertThat(selectCount).isEqualTo(3*N + 1);  // For fetch = LAZY list returns 3 records with N relations
-        assertThat(selectCount).isEqualTo(3 * N + 1);  // For fetch = EAGER list returns 3 records with N relations
+        assertThat(selectCount).isEqualTo(3 * N + 1);  // For fetch = LAZY list returns 3 records with N relations
+//		assertThat(selectCount).isEqualTo(3 * N + 1);  // For fetch = EAGER list returns 3 records with N relations
 
     }
 
@@ -127,8 +131,8 @@ class NPlus1DetectionTest2 {
         List<Doctor> doctors = entityManager.createQuery("select d from Doctor d", Doctor.class).getResultList();
         QueryCount queryCount = QueryCountHolder.getGrandTotal();
         long selectCount = queryCount.getSelect();
-//		assertThat(selectCount).isEqualTo(1);       // For fetch = LAZY does not load lazy relations only loads main entity
-        assertThat(selectCount).isEqualTo(3 * N + 1); // For fetch = EAGER list returns 3 records with N relations
+        assertThat(selectCount).isEqualTo(1);       // For fetch = LAZY does not load lazy relations only loads main entity
+//		assertThat(selectCount).isEqualTo(3 * N + 1); // For fetch = EAGER list returns 3 records with N relations
     }
 
     @Test
@@ -149,8 +153,8 @@ class NPlus1DetectionTest2 {
 
         QueryCount queryCount = QueryCountHolder.getGrandTotal();
         long selectCount = queryCount.getSelect();
-//		assertThat(selectCount).isEqualTo(3*N + 1);  // For fetch = LAZY list returns 3 records with N relations
-        assertThat(selectCount).isEqualTo(3 * N + 1);  // For fetch = EAGER list returns 3 records with N relations
+        assertThat(selectCount).isEqualTo(3 * N + 1);  // For fetch = LAZY list returns 3 records with N relations
+//		assertThat(selectCount).isEqualTo(3 * N + 1);  // For fetch = EAGER list returns 3 records with N relations
 
     }
 
@@ -173,8 +177,8 @@ class NPlus1DetectionTest2 {
 
         QueryCount queryCount = QueryCountHolder.getGrandTotal();
         long selectCount = queryCount.getSelect();
-//		assertThat(selectCount).isEqualTo(1);  // For fetch = LAZY list returns 3 records with N relations
-        assertThat(selectCount).isEqualTo(1);  // For fetch = EAGER list returns 3 records with N relations
+        assertThat(selectCount).isEqualTo(1);  // For fetch = LAZY list returns 3 records with N relations
+//		assertThat(selectCount).isEqualTo(1);  // For fetch = EAGER list returns 3 records with N relations
 
     }
 
@@ -198,8 +202,8 @@ class NPlus1DetectionTest2 {
 
         QueryCount queryCount = QueryCountHolder.getGrandTotal();
         long selectCount = queryCount.getSelect();
-//		assertThat(selectCount).isEqualTo(1);  // For fetch = LAZY list returns 3 records with N relations
-        assertThat(selectCount).isEqualTo(1);  // For fetch = EAGER list returns 3 records with N relations
+        assertThat(selectCount).isEqualTo(1);  // For fetch = LAZY list returns 3 records with N relations
+//		assertThat(selectCount).isEqualTo(1);  // For fetch = EAGER list returns 3 records with N relations
 
     }
 }
@@ -0,0 +1,94 @@
+package com.example.nplusone.benchmark;
+
+import com.example.nplusone.model.Doctor;
+import com.example.nplusone.repository.AppointmentRepository;
+import com.example.nplusone.repository.AppointmentSlot;
+import com.example.nplusone.repository.DoctorRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pages of 20 appointments in one week of the schedule of a doctor, with a history of 100k to 2M appointments, one
+ * every 10 minutes since 2000, and as many for a second doctor. The first page and a page after a cursor in the middle
+ * of the week are each one range read on the (doctor_id, appointment_time, id) index, so their latency does not depend
+ * on the history size.
+ *
+ * Run the main method from the IDE, or with
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-classpath %classpath com.example.nplusone.benchmark.AppointmentScheduleBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class AppointmentScheduleBenchmark {
+
+    private static final LocalDateTime WEEK_START = LocalDateTime.of(2001, 6, 1, 0, 0);
+
+    private static final LocalDateTime WEEK_END = WEEK_START.plusWeeks(1);
+
+    private static final Limit PAGE = Limit.of(21);
+
+    @Param({"100000", "1000000", "2000000"})
+    private int historySize;
+
+    private ConfigurableApplicationContext context;
+
+    private AppointmentRepository appointmentRepository;
+
+    private Long doctorId;
+
+    private AppointmentSlot cursor;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = Benchmarks.start(Benchmarks.anApplication());
+        appointmentRepository = context.getBean(AppointmentRepository.class);
+        DoctorRepository doctorRepository = context.getBean(DoctorRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        long start = System.nanoTime();
+        for (String name : List.of("Busy", "Other")) {
+            Doctor doctor = new Doctor();
+            doctor.setName(name);
+            doctorId = doctorRepository.save(doctor).getId();
+            jdbcTemplate.update("INSERT INTO appointment (id, appointment_time, doctor_id)"
+                    + " SELECT NEXT VALUE FOR appointment_seq, DATEADD(MINUTE, 10 * X, TIMESTAMP '2000-01-01 00:00:00'), ?"
+                    + " FROM SYSTEM_RANGE(0, ?)",
+                    doctorId, historySize - 1);
+        }
+        System.out.println();
+        System.out.println("Inserted " + 2 * historySize + " appointments in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+
+        cursor = appointmentRepository.findSchedule(doctorId, WEEK_START, WEEK_END, Limit.of(84)).get(83);
+    }
+
+    @Benchmark
+    public List<AppointmentSlot> firstPage() {
+        return appointmentRepository.findSchedule(doctorId, WEEK_START, WEEK_END, PAGE);
+    }
+
+    @Benchmark
+    public List<AppointmentSlot> pageAfterCursor() {
+        return appointmentRepository.findScheduleAfter(doctorId, WEEK_START, WEEK_END, cursor.getAppointmentTime(),
+                cursor.getId(), PAGE);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Benchmarks.run(AppointmentScheduleBenchmark.class);
+    }
+}
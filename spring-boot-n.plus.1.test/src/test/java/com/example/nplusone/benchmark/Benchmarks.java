@@ -0,0 +1,73 @@
+package com.example.nplusone.benchmark;
+
+import com.example.nplusone.SpringBootJpaH2Application;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Starts the application measured by a benchmark and runs a benchmark from its main method.
+ */
+final class Benchmarks {
+
+    /**
+     * An in-memory database of its own, and no SQL logging nor N+1 detection, which would weigh on every statement
+     * measured.
+     */
+    private static final List<String> DEFAULT_ARGS = List.of(
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_ON_EXIT=FALSE",
+            "--spring.jpa.show-sql=false",
+            "--sql.log.enabled=false",
+            "--nplusone.detector.enabled=false");
+
+    private Benchmarks() {
+    }
+
+    /**
+     * The application without its web server.
+     */
+    static SpringApplicationBuilder anApplication() {
+        return new SpringApplicationBuilder(SpringBootJpaH2Application.class).web(WebApplicationType.NONE);
+    }
+
+    /**
+     * Runs the application with the default arguments and the given ones, a given argument replacing the default one
+     * of the same property. The arguments are passed on the command line since command line arguments, unlike default
+     * properties, override application.properties.
+     */
+    static ConfigurableApplicationContext start(SpringApplicationBuilder application, String... args) {
+        List<String> allArgs = new ArrayList<>();
+        for (String defaultArg : DEFAULT_ARGS) {
+            String property = defaultArg.substring(0, defaultArg.indexOf('=') + 1);
+            if (Arrays.stream(args).noneMatch(arg -> arg.startsWith(property))) {
+                allArgs.add(defaultArg);
+            }
+        }
+        allArgs.addAll(Arrays.asList(args));
+        return application.run(allArgs.toArray(String[]::new));
+    }
+
+    /**
+     * Runs the benchmark with the GC profiler, which reports the allocation per operation, and writes the results in
+     * target, for instance target/doctor-fetch-mode-benchmark.json for DoctorFetchModeBenchmark.
+     */
+    static void run(Class<?> benchmark) throws RunnerException {
+        String resultFile = benchmark.getSimpleName().replaceAll("([a-z])([A-Z])", "$1-$2").toLowerCase() + ".json";
+        new Runner(new OptionsBuilder()
+                .include(benchmark.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/" + resultFile)
+                .build())
+                .run();
+    }
+}
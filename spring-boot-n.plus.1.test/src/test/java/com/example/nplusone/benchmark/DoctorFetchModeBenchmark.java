@@ -0,0 +1,114 @@
+package com.example.nplusone.benchmark;
+
+import com.example.nplusone.config.AssociationFetchProperties;
+import com.example.nplusone.model.Doctor;
+import com.example.nplusone.repository.DoctorRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads 10k doctors and reads their appointments and patients, 24 of each per doctor, with each fetch mode of
+ * {@link AssociationFetchProperties} applied to both collections. JMH reports the latency, and the allocation per
+ * operation with the GC profiler. The selects per operation are printed at the end of each trial.
+ *
+ * Run the main method from the IDE, or with
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-classpath %classpath com.example.nplusone.benchmark.DoctorFetchModeBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DoctorFetchModeBenchmark {
+
+    private static final int DOCTOR_COUNT = 10_000;
+
+    private static final int APPOINTMENTS_PER_DOCTOR = 24;
+
+    private static final int PATIENTS_PER_DOCTOR = 24;
+
+    @Param({"SELECT", "BATCH", "SUBSELECT"})
+    private AssociationFetchProperties.Mode mode;
+
+    private ConfigurableApplicationContext context;
+
+    private DoctorRepository doctorRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    private long operationCount;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = Benchmarks.start(Benchmarks.anApplication(),
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--fetch.associations[Doctor.appointments].mode=" + mode,
+                "--fetch.associations[Doctor.appointments].batch-size=100",
+                "--fetch.associations[Doctor.patients].mode=" + mode,
+                "--fetch.associations[Doctor.patients].batch-size=100");
+        doctorRepository = context.getBean(DoctorRepository.class);
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        transactionTemplate = readOnlyTransaction;
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        insertDoctors(context.getBean(JdbcTemplate.class));
+    }
+
+    private static void insertDoctors(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO doctor (id, name) SELECT X, CONCAT('House', X) FROM SYSTEM_RANGE(1, ?)", DOCTOR_COUNT);
+        jdbcTemplate.update("INSERT INTO appointment (id, appointment_time, doctor_id)"
+                + " SELECT X, CURRENT_TIMESTAMP, (X - 1) / ? + 1 FROM SYSTEM_RANGE(1, ?)",
+                APPOINTMENTS_PER_DOCTOR, DOCTOR_COUNT * APPOINTMENTS_PER_DOCTOR);
+        jdbcTemplate.update("INSERT INTO patient (id, name, doctor_id)"
+                + " SELECT X, CONCAT('P', X), (X - 1) / ? + 1 FROM SYSTEM_RANGE(1, ?)",
+                PATIENTS_PER_DOCTOR, DOCTOR_COUNT * PATIENTS_PER_DOCTOR);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearStatistics() {
+        statistics.clear();
+        operationCount = 0;
+    }
+
+    @Benchmark
+    public long loadDoctorsWithAppointmentsAndPatients() {
+        operationCount++;
+        return transactionTemplate.execute(status -> {
+            List<Doctor> doctors = doctorRepository.findAll();
+            long size = 0;
+            for (Doctor doctor : doctors) {
+                size += doctor.getAppointments().size() + doctor.getPatients().size();
+            }
+            return size;
+        });
+    }
+
+    @TearDown(Level.Iteration)
+    public void printSelectCount() {
+        System.out.println();
+        System.out.println(mode + ": " + statistics.getPrepareStatementCount() / Math.max(1, operationCount)
+                + " selects per operation");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Benchmarks.run(DoctorFetchModeBenchmark.class);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.nplusone.benchmark;
+
+import com.example.nplusone.config.MyTestConfig;
+import com.example.nplusone.model.Appointment;
+import com.example.nplusone.model.Doctor;
+import com.example.nplusone.model.Patient;
+import com.example.nplusone.repository.DoctorRepository;
+import com.example.nplusone.service.DoctorService;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves 10k doctors with 5 appointments and 5 patients each, 110k rows, in one transaction with
+ * {@code doctorRepository.saveAll}. A JDBC batch size of 1 sends one insert per row, 50 sends one per 50 rows of a
+ * table. JMH reports the rows inserted per second as the rows counter; the statements sent per operation, inserts and
+ * sequence calls, are printed at the end of each iteration.
+ *
+ * Run the main method from the IDE, or with
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-classpath %classpath com.example.nplusone.benchmark.DoctorIngestionBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DoctorIngestionBenchmark {
+
+    private static final int DOCTOR_COUNT = 10_000;
+
+    private static final int APPOINTMENTS_PER_DOCTOR = 5;
+
+    private static final int PATIENTS_PER_DOCTOR = 5;
+
+    private static final int ROW_COUNT = DOCTOR_COUNT * (1 + APPOINTMENTS_PER_DOCTOR + PATIENTS_PER_DOCTOR);
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private DoctorRepository doctorRepository;
+
+    private DoctorService doctorService;
+
+    private TransactionTemplate transactionTemplate;
+
+    private long operationCount;
+
+    private long insertCount;
+
+    private long statementCount;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Rows {
+
+        public long rows;
+    }
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = Benchmarks.start(Benchmarks.anApplication().sources(MyTestConfig.class),
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        doctorRepository = context.getBean(DoctorRepository.class);
+        doctorService = context.getBean(DoctorService.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @Setup(Level.Iteration)
+    public void clearCounts() {
+        operationCount = 0;
+        insertCount = 0;
+        statementCount = 0;
+    }
+
+    @Benchmark
+    public List<Doctor> saveDoctorsWithAppointmentsAndPatients(Rows rows) {
+        List<Doctor> doctors = new ArrayList<>(DOCTOR_COUNT);
+        for (int i = 0; i < DOCTOR_COUNT; i++) {
+            Doctor doctor = new Doctor();
+            doctor.setName("House" + i);
+            for (int j = 0; j < APPOINTMENTS_PER_DOCTOR; j++) {
+                doctor.addAppointment(new Appointment());
+            }
+            for (int j = 0; j < PATIENTS_PER_DOCTOR; j++) {
+                doctor.addPatient(new Patient("P" + j));
+            }
+            doctors.add(doctor);
+        }
+
+        QueryCount before = QueryCountHolder.getGrandTotal();
+        List<Doctor> saved = transactionTemplate.execute(status -> doctorRepository.saveAll(doctors));
+        QueryCount after = QueryCountHolder.getGrandTotal();
+
+        operationCount++;
+        insertCount += after.getInsert() - before.getInsert();
+        statementCount += after.getTotal() - before.getTotal();
+        rows.rows += ROW_COUNT;
+        return saved;
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteDoctors() {
+        doctorService.deleteAllInBulk();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printStatementCount() {
+        System.out.println();
+        System.out.println("batch size " + batchSize + ": " + insertCount / Math.max(1, operationCount)
+                + " inserts and " + statementCount / Math.max(1, operationCount) + " statements per "
+                + ROW_COUNT + " rows");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Benchmarks.run(DoctorIngestionBenchmark.class);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.nplusone.benchmark;
+
+import net.sf.log4jdbc.sql.jdbcapi.DataSourceSpy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of HTTP requests reading tutorials, each running one select, with each SQL logging:
+ * <ul>
+ * <li>none: no statement is logged</li>
+ * <li>log4jdbc: the former configuration, spring.jpa.show-sql with log4jdbc spying the DataSource, jdbc.sqlonly at
+ * INFO and jdbc.resultsettable at DEBUG. Statements and result sets are formatted and printed on the request
+ * thread</li>
+ * <li>async: the sqllog package with its default properties but a slow threshold of 0, so that every statement is
+ * logged as with log4jdbc. Statements are queued for the writer thread</li>
+ * </ul>
+ * Every log line goes to the console.
+ *
+ * Run the main method from the IDE, or with
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-classpath %classpath com.example.nplusone.benchmark.SqlLoggingBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx1g",
+        "-Dlog4jdbc.spylogdelegator.name=net.sf.log4jdbc.log.slf4j.Slf4jSpyLogDelegator"})
+public class SqlLoggingBenchmark {
+
+    private static final int TUTORIAL_COUNT = 10_000;
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"none", "log4jdbc", "async"})
+    private String logging;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--sql.log.enabled=" + logging.equals("async"),
+                "--sql.log.slow-threshold=0ms"));
+        if (logging.equals("log4jdbc")) {
+            args.addAll(List.of(
+                    "--spring.jpa.show-sql=true",
+                    "--logging.level.jdbc=ERROR",
+                    "--logging.level.jdbc.audit=OFF",
+                    "--logging.level.jdbc.connection=OFF",
+                    "--logging.level.jdbc.sqlonly=INFO",
+                    "--logging.level.jdbc.sqltiming=OFF",
+                    "--logging.level.jdbc.resultset=OFF",
+                    "--logging.level.jdbc.resultsettable=DEBUG"));
+        }
+        SpringApplicationBuilder application = Benchmarks.anApplication().web(WebApplicationType.SERVLET);
+        if (logging.equals("log4jdbc")) {
+            application.sources(Log4jdbcSpy.class);
+        }
+        context = Benchmarks.start(application, args.toArray(String[]::new));
+        context.getBean(JdbcTemplate.class).update("INSERT INTO tutorials (id, title, description, published)"
+                + " SELECT X, CONCAT('Tutorial ', X), CONCAT('Description of tutorial ', X), MOD(X, 2) = 0"
+                + " FROM SYSTEM_RANGE(1, ?)", TUTORIAL_COUNT);
+        httpClient = HttpClient.newHttpClient();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/tutorials";
+    }
+
+    @Benchmark
+    public String tutorialPage() throws IOException, InterruptedException {
+        int page = ThreadLocalRandom.current().nextInt(TUTORIAL_COUNT / PAGE_SIZE);
+        return get(baseUrl + "?page=" + page + "&size=" + PAGE_SIZE);
+    }
+
+    @Benchmark
+    public String tutorialById() throws IOException, InterruptedException {
+        return get(baseUrl + "/" + (1 + ThreadLocalRandom.current().nextInt(TUTORIAL_COUNT)));
+    }
+
+    private String get(String url) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(url + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    // not a @Configuration, which the component scan of the application would pick up in every test context
+    static class Log4jdbcSpy {
+
+        @Bean
+        static BeanPostProcessor log4jdbcDataSourceSpy() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new DataSourceSpy(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Benchmarks.run(SqlLoggingBenchmark.class);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.nplusone.benchmark;
+
+import com.example.nplusone.model.Tutorial;
+import com.example.nplusone.repository.TutorialRepository;
+import com.example.nplusone.search.InvertedIndexTutorialSearch;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page of 20 tutorials matching a word, out of 1M tutorials, with the inverted index and with the
+ * {@code LIKE '%word%'} query of {@link TutorialRepository#findByTitleContaining}. The index search also loads the
+ * 20 tutorials by id.
+ * <p>
+ * Each title has one of eight common words, so a common word matches 125k tutorials, and one tutorial in 10k has
+ * the rare word. With a common word, the LIKE query stops after 21 matching rows but cannot rank them; with the rare
+ * word it scans the whole table.
+ *
+ * Run the main method from the IDE, or with
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-classpath %classpath com.example.nplusone.benchmark.TutorialSearchBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class TutorialSearchBenchmark {
+
+    private static final int TUTORIAL_COUNT = 1_000_000;
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+    @Param({"spring", "kotlin"})
+    private String word;
+
+    private ConfigurableApplicationContext context;
+
+    private TutorialRepository tutorialRepository;
+
+    private InvertedIndexTutorialSearch tutorialSearch;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = Benchmarks.start(Benchmarks.anApplication());
+        tutorialRepository = context.getBean(TutorialRepository.class);
+        tutorialSearch = context.getBean(InvertedIndexTutorialSearch.class);
+        context.getBean(JdbcTemplate.class).update("INSERT INTO tutorials (id, title, description, published)"
+                + " SELECT X,"
+                + " CONCAT('Tutorial ', X, ' ', ARRAY_GET(ARRAY['spring', 'java', 'hibernate', 'docker',"
+                + " 'kafka', 'react', 'python', 'rust'], MOD(X, 8) + 1), CASEWHEN(MOD(X, 10000) = 0, ' kotlin', '')),"
+                + " CONCAT('Description of tutorial ', X, ' for developers'),"
+                + " MOD(X, 2) = 0"
+                + " FROM SYSTEM_RANGE(1, ?)", TUTORIAL_COUNT);
+        long start = System.nanoTime();
+        tutorialSearch.rebuild();
+        System.out.println();
+        System.out.println("Indexed " + tutorialSearch.size() + " tutorials in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    @Benchmark
+    public List<Tutorial> invertedIndex() {
+        return tutorialRepository.findAllById(tutorialSearch.search(word, FIRST_PAGE).getContent());
+    }
+
+    @Benchmark
+    public List<Tutorial> likeQuery() {
+        return tutorialRepository.findByTitleContaining(word, FIRST_PAGE).getContent();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Benchmarks.run(TutorialSearchBenchmark.class);
+    }
+}
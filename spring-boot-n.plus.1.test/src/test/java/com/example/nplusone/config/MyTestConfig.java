@@ -1,15 +1,13 @@
 package com.example.nplusone.config;
 
-import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import com.example.nplusone.querybudget.CapturedStatements;
+import net.ttddyy.dsproxy.listener.DataSourceQueryCountListener;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.test.context.TestConfiguration;
 
 import javax.sql.DataSource;
 
-import static net.ttddyy.dsproxy.listener.logging.CommonsLogLevel.DEBUG;
-import static net.ttddyy.dsproxy.listener.logging.CommonsLogLevel.INFO;
-
 @TestConfiguration
 public class MyTestConfig implements BeanPostProcessor {
     public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException
@@ -17,15 +15,9 @@ public class MyTestConfig implements BeanPostProcessor {
 
         if (bean instanceof DataSource)
         {
-            return ProxyDataSourceBuilder
-                    .create((DataSource) bean)
-                    .countQuery()
-//                    .logQueryByCommons(INFO)
-//                    .multiline()
-                    .name("MyDS")
-                    .build();
-            // @formatter:on
-
+            // Shares the proxy of the SQL logger and the N+1 detector when they wrapped the DataSource first
+            return ProxyDataSources.withListeners((DataSource) bean, "MyDS",
+                    new DataSourceQueryCountListener(), CapturedStatements.LISTENER);
         }
         return bean; // you can return any other object as well
     }
@@ -1,6 +1,7 @@
 package com.example.nplusone.config;
 
 
+import com.example.nplusone.querybudget.CapturedStatements;
 import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.test.context.TestConfiguration;
@@ -17,6 +18,7 @@ public class TestDataSourceConfig {
         return ProxyDataSourceBuilder
                 .create(realDataSource)
                 .countQuery()
+                .listener(CapturedStatements.LISTENER)
 //                    .logQueryByCommons(INFO)
 //                    .multiline()
                 .name("MyDS")
@@ -0,0 +1,178 @@
+package com.example.nplusone.controller;
+
+import com.example.nplusone.config.MyTestConfig;
+import com.example.nplusone.model.Doctor;
+import com.example.nplusone.querybudget.ExpectSelects;
+import com.example.nplusone.repository.DoctorRepository;
+import com.example.nplusone.service.DoctorService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Schedule of a doctor with 200k appointments, one per hour since 2000: each page is one range read on the
+ * (doctor_id, appointment_time, id) index, after the last appointment of the previous page.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:appointments;DB_CLOSE_ON_EXIT=FALSE")
+@AutoConfigureMockMvc
+@Import(MyTestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AppointmentControllerTest {
+
+	private static final int APPOINTMENT_COUNT = 200_000;
+
+	private static final String WEEK_START = "2020-06-01T00:00:00";
+
+	private static final String WEEK_END = "2020-06-08T00:00:00";
+
+	// one appointment per hour, and ten more at the same time on the first day
+	private static final int WEEK_APPOINTMENT_COUNT = 7 * 24 + 10;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private DoctorService doctorService;
+
+	private Long doctorId;
+
+	@BeforeAll
+	void setUp() {
+		doctorId = insertDoctor("Busy");
+		Long otherDoctorId = insertDoctor("Other");
+		for (Long id : List.of(doctorId, otherDoctorId)) {
+			jdbcTemplate.update("INSERT INTO appointment (id, appointment_time, doctor_id)"
+					+ " SELECT NEXT VALUE FOR appointment_seq, DATEADD(HOUR, X, TIMESTAMP '2000-01-01 00:00:00'), ?"
+					+ " FROM SYSTEM_RANGE(0, ?)",
+					id, APPOINTMENT_COUNT - 1);
+		}
+		jdbcTemplate.update("INSERT INTO appointment (id, appointment_time, doctor_id)"
+				+ " SELECT NEXT VALUE FOR appointment_seq, TIMESTAMP '2020-06-01 09:00:00', ? FROM SYSTEM_RANGE(1, 10)", doctorId);
+	}
+
+	@AfterAll
+	void cleanUp() {
+		doctorService.deleteAllInBulk();
+	}
+
+	@Test
+	@ExpectSelects(1)
+	void testFirstPageHasDefaultSizeAndLinksToTheNextOne() throws Exception {
+		mockMvc.perform(schedule())
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(AppointmentController.DEFAULT_PAGE_SIZE)))
+				.andExpect(jsonPath("$[0].appointmentTime", is("2020-06-01T00:00:00")))
+				.andExpect(header().string("Link", containsString("afterTime=2020-06-01T09:00")))
+				.andExpect(header().string("Link", endsWith("; rel=\"next\"")));
+	}
+
+	@Test
+	void testFollowingTheLinksReadsTheRangeOnceInOrder() throws Exception {
+		List<String> keys = new ArrayList<>();
+		MvcResult result = mockMvc.perform(schedule().queryParam("size", "50"))
+				.andExpect(status().isOk())
+				.andReturn();
+		while (true) {
+			String content = result.getResponse().getContentAsString();
+			List<String> times = JsonPath.read(content, "$[*].appointmentTime");
+			List<Integer> ids = JsonPath.read(content, "$[*].id");
+			for (int i = 0; i < ids.size(); i++) {
+				keys.add(times.get(i) + "/" + String.format("%09d", ids.get(i)));
+			}
+
+			String link = result.getResponse().getHeader("Link");
+			if (link == null) {
+				break;
+			}
+			result = mockMvc.perform(get(URI.create(link.substring(1, link.indexOf('>')))))
+					.andExpect(status().isOk())
+					.andReturn();
+		}
+
+		assertThat(keys).hasSize(WEEK_APPOINTMENT_COUNT).doesNotHaveDuplicates().isSorted();
+	}
+
+	@Test
+	void testScheduleIsReadFromTheIndex() {
+		String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT id, appointment_time FROM appointment"
+				+ " WHERE doctor_id = ? AND appointment_time >= ? AND appointment_time < ?"
+				+ " ORDER BY appointment_time, id FETCH FIRST 21 ROWS ONLY", String.class,
+				doctorId, WEEK_START, WEEK_END);
+
+		assertThat(plan).containsIgnoringCase("idx_appointment_doctor_time");
+	}
+
+	@Test
+	void testEmptyRangeAndInvalidCursor() throws Exception {
+		mockMvc.perform(get("/api/doctors/{id}/appointments", doctorId)
+						.queryParam("from", "1990-01-01T00:00:00")
+						.queryParam("to", "1991-01-01T00:00:00"))
+				.andExpect(status().isNoContent());
+
+		mockMvc.perform(schedule().queryParam("afterTime", WEEK_START))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void testAllocationAndLatencyPerPageAreBounded() throws Exception {
+		for (int i = 0; i < 20; i++) {
+			mockMvc.perform(schedule().queryParam("size", "100")).andExpect(status().isOk());
+		}
+
+		long allocatedBefore = allocatedBytes();
+		long start = System.nanoTime();
+		mockMvc.perform(schedule().queryParam("size", "100"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(100)));
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+		long allocated = allocatedBytes() - allocatedBefore;
+
+		// Reading the 200k appointments of the doctor would allocate well over 50 MB
+		assertThat(allocated).isLessThan(5_000_000);
+		assertThat(elapsedMillis).isLessThan(1_000);
+	}
+
+	private MockHttpServletRequestBuilder schedule() {
+		return get("/api/doctors/{id}/appointments", doctorId)
+				.queryParam("from", WEEK_START)
+				.queryParam("to", WEEK_END);
+	}
+
+	private Long insertDoctor(String name) {
+		Doctor doctor = new Doctor();
+		doctor.setName(name);
+		return doctorRepository.save(doctor).getId();
+	}
+
+	private static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+	}
+}
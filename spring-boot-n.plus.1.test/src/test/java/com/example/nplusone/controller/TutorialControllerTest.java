@@ -0,0 +1,175 @@
+package com.example.nplusone.controller;
+
+import com.example.nplusone.config.MyTestConfig;
+import com.example.nplusone.querybudget.ExpectSelects;
+import com.example.nplusone.search.InvertedIndexTutorialSearch;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tutorial listings over 100k rows: each request reads one page, so its heap allocation and latency do not depend on
+ * the table size.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:tutorials;DB_CLOSE_ON_EXIT=FALSE")
+@AutoConfigureMockMvc
+@Import(MyTestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TutorialControllerTest {
+
+	private static final int TUTORIAL_COUNT = 100_000;
+
+	private static final int MAX_PAGE_SIZE = 100;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private InvertedIndexTutorialSearch tutorialSearch;
+
+	@BeforeAll
+	void setUp() {
+		List<Object[]> rows = new ArrayList<>(TUTORIAL_COUNT);
+		for (int id = 1; id <= TUTORIAL_COUNT; id++) {
+			rows.add(new Object[] {id, "Tutorial " + id, "Description " + id, id % 2 == 0});
+		}
+		jdbcTemplate.batchUpdate("insert into tutorials (id, title, description, published) values (?, ?, ?, ?)", rows);
+		jdbcTemplate.execute("alter sequence tutorials_seq restart with " + (TUTORIAL_COUNT + 1_000));
+		tutorialSearch.rebuild();
+	}
+
+	@AfterAll
+	void cleanUp() {
+		jdbcTemplate.update("delete from tutorials");
+	}
+
+	@Test
+	@ExpectSelects(1)
+	void testFirstPageHasDefaultSizeAndLinksToTheNextOne() throws Exception {
+		mockMvc.perform(get("/api/tutorials"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(TutorialController.DEFAULT_PAGE_SIZE)))
+				.andExpect(jsonPath("$[0].id", is(1)))
+				.andExpect(header().string("Link", endsWith("/api/tutorials?page=1&size=20>; rel=\"next\"")));
+	}
+
+	@Test
+	void testPageSizeIsCapped() throws Exception {
+		mockMvc.perform(get("/api/tutorials").param("size", String.valueOf(TUTORIAL_COUNT)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(MAX_PAGE_SIZE)));
+	}
+
+	@Test
+	void testLastPageHasNoNextLink() throws Exception {
+		mockMvc.perform(get("/api/tutorials").param("page", "999").param("size", "100"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(100)))
+				.andExpect(jsonPath("$[99].id", is(TUTORIAL_COUNT)))
+				.andExpect(header().doesNotExist("Link"));
+
+		mockMvc.perform(get("/api/tutorials").param("page", "1000").param("size", "100"))
+				.andExpect(status().isNoContent());
+	}
+
+	@Test
+	void testPublishedAndTitleFilters() throws Exception {
+		mockMvc.perform(get("/api/tutorials/published").param("page", "1").param("size", "10"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(10)))
+				.andExpect(jsonPath("$[0].id", is(22)))
+				.andExpect(jsonPath("$[*].published", everyItem(is(true))));
+
+		mockMvc.perform(get("/api/tutorials").param("title", "Tutorial 9999"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(11)))
+				.andExpect(header().doesNotExist("Link"));
+	}
+
+	@Test
+	void testSearchRanksAndPages() throws Exception {
+		// 42 is in both the title and the description of tutorial 42, every tutorial has the other words
+		mockMvc.perform(get("/api/tutorials/search").param("q", "description 42 tutorial").param("size", "5"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(5)))
+				.andExpect(jsonPath("$[0].id", is(42)))
+				.andExpect(jsonPath("$[1].id", is(1)))
+				.andExpect(header().string("Link", endsWith("page=1&size=5>; rel=\"next\"")));
+
+		mockMvc.perform(get("/api/tutorials/search").param("q", "unknown"))
+				.andExpect(status().isNoContent());
+	}
+
+	@Test
+	void testSavedTutorialsAreSearchableOnceCommitted() throws Exception {
+		String created = mockMvc.perform(post("/api/tutorials")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"title\": \"Kotlin coroutines\", \"description\": \"Structured concurrency\"}"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		String id = created.replaceAll(".*\"id\":(\\d+).*", "$1");
+
+		mockMvc.perform(get("/api/tutorials/search").param("q", "concurrency"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].title", is("Kotlin coroutines")));
+
+		mockMvc.perform(delete("/api/tutorials/" + id))
+				.andExpect(status().isNoContent());
+		mockMvc.perform(get("/api/tutorials/search").param("q", "concurrency"))
+				.andExpect(status().isNoContent());
+	}
+
+	@Test
+	void testAllocationAndLatencyPerPageAreBounded() throws Exception {
+		for (int i = 0; i < 20; i++) {
+			fetchPage(i * 50);
+		}
+
+		for (int page : new int[] {0, 500, 999}) {
+			long allocatedBefore = allocatedBytes();
+			long start = System.nanoTime();
+			fetchPage(page);
+			long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+			long allocated = allocatedBytes() - allocatedBefore;
+
+			// Reading the 100k tutorials would allocate well over 50 MB
+			assertThat(allocated).as("bytes allocated for page %d", page).isLessThan(5_000_000);
+			assertThat(elapsedMillis).as("milliseconds for page %d", page).isLessThan(1_000);
+		}
+	}
+
+	private MvcResult fetchPage(int page) throws Exception {
+		return mockMvc.perform(get("/api/tutorials").param("page", String.valueOf(page)).param("size", "100"))
+				.andExpect(status().isOk())
+				.andReturn();
+	}
+
+	private static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+	}
+}
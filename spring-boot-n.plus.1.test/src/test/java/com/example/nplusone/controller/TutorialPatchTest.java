@@ -0,0 +1,215 @@
+package com.example.nplusone.controller;
+
+import com.example.nplusone.config.MyTestConfig;
+import com.example.nplusone.published.PublishedTutorial;
+import com.example.nplusone.published.PublishedTutorials;
+import com.example.nplusone.querybudget.ExpectMaxStatements;
+import com.example.nplusone.querybudget.ExpectSelects;
+import com.example.nplusone.search.InvertedIndexTutorialSearch;
+import com.example.nplusone.service.TutorialService;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Partial updates and bulk publishing write with one update statement, without loading the tutorials, and keep the
+ * search index and the published tutorials up to date.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:tutorialpatch;DB_CLOSE_ON_EXIT=FALSE")
+@AutoConfigureMockMvc
+@Import(MyTestConfig.class)
+class TutorialPatchTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TutorialService tutorialService;
+
+	@Autowired
+	private InvertedIndexTutorialSearch tutorialSearch;
+
+	@Autowired
+	private PublishedTutorials publishedTutorials;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("INSERT INTO tutorials (id, title, description, published)"
+				+ " SELECT X, CASEWHEN(X <= 5, CONCAT('Java ', X), CONCAT('Kotlin ', X)), 'Basics', FALSE"
+				+ " FROM SYSTEM_RANGE(1, 10)");
+		tutorialSearch.rebuild();
+		publishedTutorials.rebuild();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		tutorialService.deleteAllInBulk();
+	}
+
+	@Test
+	@ExpectSelects(1)
+	@ExpectMaxStatements(2)
+	void testPatchRunsOneUpdateAndReturnsTheNewVersion() throws Exception {
+		// the select reads the text back for the published tutorials
+		patchTutorial(1, "{\"published\": true, \"version\": 0}")
+				.andExpect(status().isNoContent())
+				.andExpect(header().string("ETag", "\"1\""));
+	}
+
+	@Test
+	void testPatchUpdatesThePublishedTutorialsWithoutReloadingThem() throws Exception {
+		publish("{\"ids\": [1, 2]}").andExpect(content().string("2"));
+		PublishedTutorial untouched = publishedTutorials.snapshot().get(1);
+		QueryCountHolder.clear();
+
+		patchTutorial(1, "{\"title\": \"Java streams\", \"version\": 1}").andExpect(status().isNoContent());
+
+		assertThat(publishedTutorials.snapshot()).containsExactly(
+				new PublishedTutorial(1, "Java streams", "Basics", 2), untouched);
+		assertThat(publishedTutorials.snapshot().get(1)).isSameAs(untouched);
+		// the update and the select reading the patched tutorial back, the snapshot is not reloaded
+		assertThat(QueryCountHolder.getGrandTotal().getTotal()).isEqualTo(2);
+	}
+
+	@Test
+	void testUnpublishingPatchReadsNothingBack() throws Exception {
+		publish("{\"ids\": [1]}").andExpect(content().string("1"));
+		assertThat(publishedTutorials.snapshot()).hasSize(1);
+		QueryCountHolder.clear();
+
+		patchTutorial(1, "{\"published\": false, \"version\": 1}").andExpect(status().isNoContent());
+
+		assertThat(QueryCountHolder.getGrandTotal().getTotal()).isEqualTo(1);
+		assertThat(publishedTutorials.snapshot()).isEmpty();
+	}
+
+	@Test
+	void testPatchOnlySetsTheGivenFields() throws Exception {
+		patchTutorial(1, "{\"title\": \"Java records\", \"description\": \"Immutable data\", \"version\": 0}")
+				.andExpect(status().isNoContent());
+
+		assertThat(jdbcTemplate.queryForMap(
+				"SELECT title, description, published, version FROM tutorials WHERE id = 1")).isEqualTo(Map.of(
+				"TITLE", "Java records", "DESCRIPTION", "Immutable data", "PUBLISHED", false, "VERSION", 1L));
+		assertThat(jdbcTemplate.queryForObject("SELECT SUM(version) FROM tutorials", Long.class)).isEqualTo(1);
+		assertThat(tutorialSearch.search("immutable", PageRequest.of(0, 10))).containsExactly(1L);
+	}
+
+	@Test
+	void testPatchOfOneTextFieldReadsTheOtherBackForTheSearchIndex() throws Exception {
+		QueryCountHolder.clear();
+
+		patchTutorial(1, "{\"title\": \"Java streams\", \"version\": 0}").andExpect(status().isNoContent());
+
+		QueryCount queryCount = QueryCountHolder.getGrandTotal();
+		assertThat(queryCount.getUpdate()).isEqualTo(1);
+		assertThat(queryCount.getSelect()).isEqualTo(1);
+		assertThat(tutorialSearch.search("streams", PageRequest.of(0, 10))).containsExactly(1L);
+		assertThat(tutorialSearch.search("basics", PageRequest.of(0, 10))).contains(1L);
+	}
+
+	@Test
+	void testPatchOfAnOutdatedVersionIsRejected() throws Exception {
+		patchTutorial(1, "{\"title\": \"First\", \"version\": 0}").andExpect(status().isNoContent());
+		QueryCountHolder.clear();
+
+		patchTutorial(1, "{\"title\": \"Second\", \"version\": 0}").andExpect(status().isConflict());
+
+		// the update matched no row, then a select told a conflict from a missing tutorial
+		assertThat(QueryCountHolder.getGrandTotal().getTotal()).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForObject("SELECT title FROM tutorials WHERE id = 1", String.class))
+				.isEqualTo("First");
+	}
+
+	@Test
+	void testPatchOfAMissingTutorialIsNotFound() throws Exception {
+		patchTutorial(42, "{\"title\": \"Missing\", \"version\": 0}").andExpect(status().isNotFound());
+	}
+
+	@Test
+	@ExpectMaxStatements(0)
+	void testPatchWithoutVersionOrFieldsIsRejected() throws Exception {
+		patchTutorial(1, "{\"title\": \"No version\"}").andExpect(status().isBadRequest());
+		patchTutorial(1, "{\"version\": 0}").andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void testPublishByIdsRunsOneUpdate() throws Exception {
+		QueryCountHolder.clear();
+
+		publish("{\"ids\": [1, 2, 3]}").andExpect(content().string("3"));
+
+		QueryCount queryCount = QueryCountHolder.getGrandTotal();
+		assertThat(queryCount.getTotal()).isEqualTo(1);
+		assertThat(queryCount.getUpdate()).isEqualTo(1);
+		assertThat(publishedTutorials.snapshot()).containsExactly(
+				new PublishedTutorial(1, "Java 1", "Basics", 1),
+				new PublishedTutorial(2, "Java 2", "Basics", 1),
+				new PublishedTutorial(3, "Java 3", "Basics", 1));
+
+		// already published, their version is left unchanged
+		publish("{\"ids\": [3, 4]}").andExpect(content().string("1"));
+		assertThat(jdbcTemplate.queryForObject("SELECT version FROM tutorials WHERE id = 3", Long.class)).isEqualTo(1);
+	}
+
+	@Test
+	@ExpectSelects(0)
+	@ExpectMaxStatements(1)
+	void testPublishByTitleRunsOneUpdate() throws Exception {
+		publish("{\"title\": \"Kotlin\"}").andExpect(content().string("5"));
+	}
+
+	@Test
+	void testPublishByTitleEscapesWildcards() throws Exception {
+		publish("{\"title\": \"%\"}").andExpect(content().string("0"));
+		publish("{\"title\": \"Java _\"}").andExpect(content().string("0"));
+	}
+
+	@Test
+	@ExpectMaxStatements(0)
+	void testPublishNeedsEitherIdsOrTitle() throws Exception {
+		publish("{}").andExpect(status().isBadRequest());
+		publish("{\"ids\": [1], \"title\": \"Java\"}").andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void testNextPatchUsesTheReturnedVersion() throws Exception {
+		patchTutorial(1, "{\"published\": true, \"version\": 0}").andExpect(status().isNoContent());
+
+		patchTutorial(1, "{\"published\": false, \"version\": 1}")
+				.andExpect(status().isNoContent())
+				.andExpect(header().string("ETag", "\"2\""));
+		assertThat(publishedTutorials.snapshot()).isEmpty();
+	}
+
+	private ResultActions patchTutorial(long id, String body) throws Exception {
+		return mockMvc.perform(patch("/api/tutorials/{id}", id).contentType(MediaType.APPLICATION_JSON).content(body));
+	}
+
+	private ResultActions publish(String body) throws Exception {
+		return mockMvc.perform(post("/api/tutorials/publish").contentType(MediaType.APPLICATION_JSON).content(body));
+	}
+}
@@ -0,0 +1,154 @@
+package com.example.nplusone.detector;
+
+import com.example.nplusone.model.Appointment;
+import com.example.nplusone.model.Doctor;
+import com.example.nplusone.repository.DoctorRepository;
+import com.example.nplusone.service.DoctorService;
+import com.example.nplusone.sqllog.AsyncSqlLogger;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"spring.datasource.url=jdbc:h2:mem:detector;DB_CLOSE_ON_EXIT=FALSE",
+		"nplusone.detector.threshold=2"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class NPlusOneDetectorTest {
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private DoctorService doctorService;
+
+	@Autowired
+	private NPlusOneDetector detector;
+
+	@Autowired
+	private NPlusOneDetectorProperties properties;
+
+	@Autowired
+	private AsyncSqlLogger sqlLogger;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeAll
+	void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		List<Doctor> doctors = new LinkedList<>();
+		for (int i = 1; i < 4; i++) {
+			Doctor doctor = new Doctor();
+			doctor.setName("House" + i);
+			doctor.addAppointment(new Appointment());
+			doctors.add(doctor);
+		}
+		doctorRepository.saveAll(doctors);
+	}
+
+	@BeforeEach
+	void beforeEach() {
+		detector.clear();
+	}
+
+	@AfterAll
+	void cleanUp() {
+		doctorService.deleteAllInBulk();
+	}
+
+	@Test
+	void testDetectorAndSqlLoggerShareOneDataSourceProxy() {
+		assertThat(dataSource).isInstanceOfSatisfying(ProxyDataSource.class, proxyDataSource ->
+				assertThat(proxyDataSource.getProxyConfig().getQueryListener().getListeners())
+						.contains(detector, sqlLogger));
+	}
+
+	@Test
+	void testLazyCollectionsInALoopAreReported() {
+		transactionTemplate.executeWithoutResult(status -> loadAppointmentsOneDoctorAtATime());
+
+		assertThat(detector.getRecentIncidents()).singleElement().satisfies(incident -> {
+			assertThat(incident.fingerprint()).contains("from appointment").endsWith("where a1_0.doctor_id=?");
+			assertThat(incident.executions()).isEqualTo(3);
+			assertThat(incident.caller()).startsWith(NPlusOneDetectorTest.class.getName() + ".loadAppointmentsOneDoctorAtATime");
+		});
+	}
+
+	@Test
+	void testFetchPlanIsNotReported() {
+		transactionTemplate.executeWithoutResult(status -> doctorRepository.findAllWithAppointmentsBy());
+
+		assertThat(detector.getIncidentCount()).isZero();
+	}
+
+	@Test
+	void testRepeatsAcrossTransactionsAreNotReported() {
+		for (int i = 0; i < 3; i++) {
+			transactionTemplate.executeWithoutResult(status -> doctorRepository.findAll());
+		}
+
+		assertThat(detector.getIncidentCount()).isZero();
+	}
+
+	@Test
+	void testRepeatedInsertsAreNotReported() {
+		transactionTemplate.executeWithoutResult(status -> {
+			List<Doctor> doctors = new LinkedList<>();
+			for (int i = 0; i < 3; i++) {
+				Doctor doctor = new Doctor();
+				doctor.setName("Temp" + i);
+				doctors.add(doctor);
+			}
+			doctorRepository.deleteAll(doctorRepository.saveAllAndFlush(doctors));
+		});
+
+		assertThat(detector.getIncidentCount()).isZero();
+	}
+
+	@Test
+	void testTransactionsOutOfTheSampleAreNotTracked() {
+		properties.setSampleRate(0);
+		try {
+			transactionTemplate.executeWithoutResult(status -> loadAppointmentsOneDoctorAtATime());
+		} finally {
+			properties.setSampleRate(1.0);
+		}
+
+		assertThat(detector.getIncidentCount()).isZero();
+	}
+
+	@Test
+	void testFingerprintsPerTransactionAreBounded() {
+		properties.setMaxFingerprintsPerTransaction(1);
+		try {
+			transactionTemplate.executeWithoutResult(status -> loadAppointmentsOneDoctorAtATime());
+		} finally {
+			properties.setMaxFingerprintsPerTransaction(256);
+		}
+
+		// Only the doctors select is tracked
+		assertThat(detector.getIncidentCount()).isZero();
+		assertThat(detector.getUntrackedFingerprintCount()).isEqualTo(3);
+	}
+
+	private void loadAppointmentsOneDoctorAtATime() {
+		for (Doctor doctor : doctorRepository.findAll()) {
+			assertThat(doctor.getAppointments()).hasSize(1);
+		}
+	}
+}
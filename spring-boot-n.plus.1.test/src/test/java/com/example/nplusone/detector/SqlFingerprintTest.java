@@ -0,0 +1,35 @@
+package com.example.nplusone.detector;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlFingerprintTest {
+
+	@Test
+	void testLiteralsAndBindParametersAreRemoved() {
+		assertThat(SqlFingerprint.of("select * from doctor where name = 'O''Neil' and id = 42"))
+				.isEqualTo(SqlFingerprint.of("select * from doctor where name = ? and id = ?"))
+				.isEqualTo("select * from doctor where name = ? and id = ?");
+	}
+
+	@Test
+	void testInListsCollapse() {
+		assertThat(SqlFingerprint.of("select * from patient where doctor_id in (?, ?, ?)"))
+				.isEqualTo(SqlFingerprint.of("select * from patient where doctor_id in (1,2)"))
+				.isEqualTo("select * from patient where doctor_id in (?)");
+	}
+
+	@Test
+	void testIdentifiersWithDigitsAndWhitespaceAreKept() {
+		assertThat(SqlFingerprint.of("select a1_0.id  from\n\tAppointment a1_0 where a1_0.doctor_id=?  "))
+				.isEqualTo("select a1_0.id from appointment a1_0 where a1_0.doctor_id=?");
+	}
+
+	@Test
+	void testFingerprintIsBounded() {
+		String longSql = "select * from doctor where name in ('" + "x".repeat(10_000) + "') and " + "id = 1 and ".repeat(1_000);
+
+		assertThat(SqlFingerprint.of(longSql)).hasSizeLessThanOrEqualTo(SqlFingerprint.MAX_LENGTH);
+	}
+}
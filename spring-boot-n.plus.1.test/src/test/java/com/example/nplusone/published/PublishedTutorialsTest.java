@@ -0,0 +1,190 @@
+package com.example.nplusone.published;
+
+import com.example.nplusone.config.MyTestConfig;
+import com.example.nplusone.model.Tutorial;
+import com.example.nplusone.querybudget.ExpectSelects;
+import com.example.nplusone.repository.TutorialRepository;
+import com.example.nplusone.service.TutorialService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+		properties = "spring.datasource.url=jdbc:h2:mem:published;DB_CLOSE_ON_EXIT=FALSE")
+@Import(MyTestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PublishedTutorialsTest {
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private TutorialRepository tutorialRepository;
+
+	@Autowired
+	private PublishedTutorials publishedTutorials;
+
+	@Autowired
+	private TutorialService tutorialService;
+
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeAll
+	void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@BeforeEach
+	void beforeEach() {
+		tutorialService.deleteAllInBulk();
+		for (int i = 1; i <= 10; i++) {
+			tutorialRepository.save(new Tutorial("Tutorial " + i, "Description " + i, i % 2 == 0));
+		}
+		publishedTutorials.rebuild();
+	}
+
+	@Test
+	@ExpectSelects(0)
+	void testPagesAreServedWithoutTheDatabase() {
+		Slice<PublishedTutorial> first = publishedTutorials.findAll(PageRequest.of(0, 3));
+		Slice<PublishedTutorial> last = publishedTutorials.findAll(PageRequest.of(1, 3));
+
+		assertThat(first).extracting(PublishedTutorial::title).containsExactly("Tutorial 2", "Tutorial 4", "Tutorial 6");
+		assertThat(first.hasNext()).isTrue();
+		assertThat(last).extracting(PublishedTutorial::title).containsExactly("Tutorial 8", "Tutorial 10");
+		assertThat(last.hasNext()).isFalse();
+		assertThat(publishedTutorials.findAll(PageRequest.of(5, 3))).isEmpty();
+	}
+
+	@Test
+	void testSnapshotIsImmutable() {
+		List<PublishedTutorial> snapshot = publishedTutorials.snapshot();
+
+		assertThatThrownBy(snapshot::clear).isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	void testCreatesUpdatesAndDeletesAreWrittenThrough() {
+		Tutorial created = tutorialRepository.save(new Tutorial("Kotlin", "Coroutines", true));
+		assertThat(publishedTutorials.snapshot()).extracting(PublishedTutorial::title).endsWith("Kotlin");
+
+		created.setTitle("Kotlin flows");
+		// the saved copy has the incremented version, saving the detached one again would be rejected
+		created = tutorialRepository.save(created);
+		assertThat(publishedTutorials.snapshot()).extracting(PublishedTutorial::title)
+				.endsWith("Kotlin flows")
+				.doesNotContain("Kotlin");
+
+		created.setPublished(false);
+		created = tutorialRepository.save(created);
+		assertThat(publishedTutorials.snapshot()).extracting(PublishedTutorial::id).doesNotContain(created.getId());
+
+		Tutorial first = tutorialRepository.findAll().get(0);
+		first.setPublished(true);
+		first = tutorialRepository.save(first);
+		assertThat(publishedTutorials.snapshot()).extracting(PublishedTutorial::id).startsWith(first.getId());
+
+		tutorialRepository.delete(first);
+		assertThat(publishedTutorials.snapshot()).extracting(PublishedTutorial::id).doesNotContain(first.getId());
+		assertThat(publishedTutorials.snapshot()).isEqualTo(publishedTutorials.rebuild());
+	}
+
+	@Test
+	void testRolledBackChangesAreNotApplied() {
+		List<PublishedTutorial> before = publishedTutorials.snapshot();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			tutorialRepository.save(new Tutorial("Rolled back", null, true));
+			tutorialRepository.findAll().forEach(tutorial -> tutorial.setPublished(!tutorial.isPublished()));
+			tutorialRepository.flush();
+			status.setRollbackOnly();
+		});
+
+		assertThat(publishedTutorials.snapshot()).isSameAs(before);
+	}
+
+	/**
+	 * Changes are applied after their commit by the committing thread, so the change of an earlier commit may come
+	 * last.
+	 */
+	@Test
+	void testChangesAppliedOutOfOrderKeepTheLatestVersion() {
+		PublishedTutorial tutorial = publishedTutorials.snapshot().get(0);
+		long id = tutorial.id();
+		long version = tutorial.version();
+
+		publishedTutorials.apply(List.of(new PublishedTutorial(id, "Second update", null, version + 2)));
+		publishedTutorials.apply(List.of(new PublishedTutorial(id, "First update", null, version + 1)));
+		assertThat(publishedTutorials.snapshot()).extracting(PublishedTutorial::title)
+				.contains("Second update")
+				.doesNotContain("First update");
+
+		publishedTutorials.apply(List.of(PublishedTutorial.unpublished(id, version + 4)));
+		publishedTutorials.apply(List.of(new PublishedTutorial(id, "Third update", null, version + 3)));
+		assertThat(publishedTutorials.snapshot()).extracting(PublishedTutorial::id).doesNotContain(id);
+
+		publishedTutorials.apply(List.of(new PublishedTutorial(id, "Published again", null, version + 5)));
+		assertThat(publishedTutorials.snapshot()).extracting(PublishedTutorial::title).startsWith("Published again");
+	}
+
+	/**
+	 * Writers publish or unpublish two tutorials in each transaction, readers check they always see both or none.
+	 */
+	@Test
+	void testReadersNeverSeeATornSnapshot() throws Exception {
+		long firstId = tutorialRepository.save(new Tutorial("Pair 1", null, false)).getId();
+		long secondId = tutorialRepository.save(new Tutorial("Pair 2", null, false)).getId();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		try {
+			List<Future<Integer>> readers = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				readers.add(executor.submit(() -> {
+					int reads = 0;
+					while (writing.get() || reads == 0) {
+						List<Long> ids = publishedTutorials.snapshot().stream().map(PublishedTutorial::id).toList();
+						assertThat(ids.contains(firstId)).isEqualTo(ids.contains(secondId));
+						assertThat(ids).isSorted().doesNotHaveDuplicates();
+						reads++;
+					}
+					return reads;
+				}));
+			}
+			Future<?> writer = executor.submit(() -> {
+				try {
+					for (int i = 0; i < 200; i++) {
+						boolean published = i % 2 == 0;
+						transactionTemplate.executeWithoutResult(status -> {
+							for (Tutorial tutorial : tutorialRepository.findAllById(List.of(firstId, secondId))) {
+								tutorial.setPublished(published);
+							}
+						});
+					}
+				} finally {
+					writing.set(false);
+				}
+			});
+
+			writer.get(60, TimeUnit.SECONDS);
+			for (Future<Integer> reader : readers) {
+				assertThat(reader.get(60, TimeUnit.SECONDS)).isPositive();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(publishedTutorials.snapshot()).extracting(PublishedTutorial::id).doesNotContain(firstId, secondId);
+	}
+}
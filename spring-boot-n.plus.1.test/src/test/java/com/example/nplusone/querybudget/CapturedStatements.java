@@ -0,0 +1,54 @@
+package com.example.nplusone.querybudget;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * datasource-proxy listener recording the statements executed on the current thread while a capture is started.
+ * Statements are counted the way {@code QueryCountHolder} counts them: a JDBC batch of one prepared statement
+ * counts once. Register it on the test data source with
+ * {@code ProxyDataSourceBuilder.listener(CapturedStatements.LISTENER)}.
+ */
+public final class CapturedStatements implements QueryExecutionListener {
+
+    public static final CapturedStatements LISTENER = new CapturedStatements();
+
+    private static final ThreadLocal<List<Statement>> CAPTURED = new ThreadLocal<>();
+
+    private CapturedStatements() {
+    }
+
+    record Statement(QueryType type, String sql) {
+    }
+
+    static void start() {
+        CAPTURED.set(new ArrayList<>());
+    }
+
+    static List<Statement> stop() {
+        List<Statement> statements = CAPTURED.get();
+        CAPTURED.remove();
+        return statements == null ? List.of() : statements;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<Statement> statements = CAPTURED.get();
+        if (statements == null) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            statements.add(new Statement(QueryUtils.getQueryType(queryInfo.getQuery()), queryInfo.getQuery()));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.nplusone.querybudget;
+
+import net.ttddyy.dsproxy.QueryType;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.opentest4j.AssertionFailedError;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the {@link ExpectSelects}, {@link ExpectInserts} and {@link ExpectMaxStatements} budgets of a test.
+ * <p>
+ * Only the statements run by the test method itself are counted: {@code @BeforeAll} and {@code @BeforeEach}
+ * data setup is not, nor are statements run by other threads. {@code TransactionTemplate} blocks run on the test
+ * thread, so their statements are counted, including the ones flushed on commit. When a budget is exceeded, the
+ * failure lists every statement of the test.
+ * <p>
+ * The data source must report to {@link CapturedStatements#LISTENER}, as the one of {@code MyTestConfig} and
+ * {@code TestDataSourceConfig} does.
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        CapturedStatements.start();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        List<CapturedStatements.Statement> statements = CapturedStatements.stop();
+        if (context.getExecutionException().isPresent()) {
+            return;
+        }
+        Method testMethod = context.getRequiredTestMethod();
+        List<String> violations = new ArrayList<>();
+
+        ExpectSelects expectSelects = testMethod.getAnnotation(ExpectSelects.class);
+        if (expectSelects != null) {
+            long selects = count(statements, QueryType.SELECT);
+            if (selects != expectSelects.value()) {
+                violations.add("expected " + expectSelects.value() + " select(s) but was " + selects);
+            }
+        }
+        ExpectInserts expectInserts = testMethod.getAnnotation(ExpectInserts.class);
+        if (expectInserts != null) {
+            long inserts = count(statements, QueryType.INSERT);
+            if (inserts != expectInserts.value()) {
+                violations.add("expected " + expectInserts.value() + " insert(s) but was " + inserts);
+            }
+        }
+        ExpectMaxStatements expectMaxStatements = testMethod.getAnnotation(ExpectMaxStatements.class);
+        if (expectMaxStatements != null && statements.size() > expectMaxStatements.value()) {
+            violations.add("expected at most " + expectMaxStatements.value() + " statement(s) but was "
+                    + statements.size());
+        }
+
+        if (!violations.isEmpty()) {
+            throw new AssertionFailedError(String.join(", ", violations) + describe(statements));
+        }
+    }
+
+    private static long count(List<CapturedStatements.Statement> statements, QueryType type) {
+        return statements.stream().filter(statement -> statement.type() == type).count();
+    }
+
+    private static String describe(List<CapturedStatements.Statement> statements) {
+        StringBuilder description = new StringBuilder("\nStatements executed by the test:");
+        for (int i = 0; i < statements.size(); i++) {
+            description.append("\n  ").append(i + 1).append(". ").append(statements.get(i).sql());
+        }
+        return description.toString();
+    }
+}
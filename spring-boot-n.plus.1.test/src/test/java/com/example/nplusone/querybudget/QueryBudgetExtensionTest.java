@@ -0,0 +1,106 @@
+package com.example.nplusone.querybudget;
+
+import com.example.nplusone.config.MyTestConfig;
+import com.example.nplusone.model.Appointment;
+import com.example.nplusone.model.Doctor;
+import com.example.nplusone.repository.DoctorRepository;
+import com.example.nplusone.service.DoctorService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+		properties = "spring.datasource.url=jdbc:h2:mem:querybudget;DB_CLOSE_ON_EXIT=FALSE")
+@Import(MyTestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetExtensionTest {
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private DoctorService doctorService;
+
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeAll
+	void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		doctorService.deleteAllInBulk();
+	}
+
+	@Test
+	@ExpectInserts(2)  // one batch per table
+	@ExpectMaxStatements(4)  // and the first block of ids of each sequence
+	void testStatementsFlushedByTransactionTemplateAreCounted() {
+		transactionTemplate.executeWithoutResult(status -> {
+			Doctor doctor = new Doctor();
+			doctor.setName("House");
+			doctor.addAppointment(new Appointment());
+			doctor.addAppointment(new Appointment());
+			doctor.addAppointment(new Appointment());
+			doctorRepository.save(doctor);
+		});
+	}
+
+	@Test
+	@ExpectSelects(0)
+	void testStatementsOfOtherThreadsAreNotCounted() {
+		CompletableFuture.supplyAsync(doctorRepository::findAll).join();
+	}
+
+	@Test
+	void testFailureListsTheStatements() throws Exception {
+		ExtensionContext context = mock(ExtensionContext.class);
+		when(context.getRequiredTestMethod()).thenReturn(getClass().getDeclaredMethod("noSelectExpected"));
+		when(context.getExecutionException()).thenReturn(Optional.empty());
+		QueryBudgetExtension extension = new QueryBudgetExtension();
+
+		extension.beforeTestExecution(context);
+		doctorRepository.findAll();
+
+		assertThatThrownBy(() -> extension.afterTestExecution(context))
+				.isInstanceOf(AssertionFailedError.class)
+				.hasMessageStartingWith("expected 0 select(s) but was 1")
+				.hasMessageContaining("1. select")
+				.hasMessageContaining("from doctor");
+	}
+
+	@Test
+	void testFailingTestIsNotMaskedByItsBudget() throws Exception {
+		ExtensionContext context = mock(ExtensionContext.class);
+		when(context.getRequiredTestMethod()).thenReturn(getClass().getDeclaredMethod("noSelectExpected"));
+		when(context.getExecutionException()).thenReturn(Optional.of(new IllegalStateException()));
+		QueryBudgetExtension extension = new QueryBudgetExtension();
+
+		extension.beforeTestExecution(context);
+		doctorRepository.findAll();
+		extension.afterTestExecution(context);
+
+		assertThat(CapturedStatements.stop()).isEmpty();
+	}
+
+	@ExpectSelects(0)
+	private void noSelectExpected() {
+	}
+}
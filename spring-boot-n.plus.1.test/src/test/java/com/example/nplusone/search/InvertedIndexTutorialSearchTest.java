@@ -0,0 +1,103 @@
+package com.example.nplusone.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTutorialSearchTest {
+
+	private InvertedIndexTutorialSearch search;
+
+	@BeforeEach
+	void setUp() {
+		search = new InvertedIndexTutorialSearch(null);
+		search.index(1, 0, "Spring Boot basics", "A first Spring application");
+		search.index(2, 0, "Hibernate fetching", "Lazy loading and the N+1 problem with Spring Data");
+		search.index(3, 0, "Kotlin coroutines", "Structured concurrency");
+		search.index(4, 0, "Spring Data JPA", "Repositories, paging and Spring Boot");
+	}
+
+	@Test
+	void testWordsAreCaseAndPunctuationInsensitive() {
+		assertThat(InvertedIndexTutorialSearch.tokenize("N+1, Spring-Boot spring"))
+				.containsExactly(entry("n", 1), entry("1", 1), entry("spring", 2), entry("boot", 1));
+		assertThat(search.search("KOTLIN!", PageRequest.of(0, 10))).containsExactly(3L);
+	}
+
+	@Test
+	void testTitleMatchesAndMoreWordsRankFirst() {
+		// 1 and 4 have spring in their title, 2 only in its description
+		assertThat(search.search("spring", PageRequest.of(0, 10))).containsExactly(1L, 4L, 2L);
+		// 4 has data and spring in its title, 1 has spring in its title and 2 both words in its description only
+		assertThat(search.search("spring data", PageRequest.of(0, 10))).containsExactly(4L, 1L, 2L);
+	}
+
+	@Test
+	void testRareWordsWeighMore() {
+		// spring is in the titles of 1 and 4, coroutines in one title only
+		assertThat(search.search("spring coroutines", PageRequest.of(0, 10))).containsExactly(3L, 1L, 4L, 2L);
+	}
+
+	@Test
+	void testPaging() {
+		Slice<Long> first = search.search("spring", PageRequest.of(0, 2));
+		Slice<Long> second = search.search("spring", PageRequest.of(1, 2));
+
+		assertThat(first).containsExactly(1L, 4L);
+		assertThat(first.hasNext()).isTrue();
+		assertThat(second).containsExactly(2L);
+		assertThat(second.hasNext()).isFalse();
+	}
+
+	@Test
+	void testReindexingReplacesTheWords() {
+		search.index(3, 1, "Kotlin flows", null);
+
+		assertThat(search.search("coroutines concurrency", PageRequest.of(0, 10))).isEmpty();
+		assertThat(search.search("flows", PageRequest.of(0, 10))).containsExactly(3L);
+		assertThat(search.size()).isEqualTo(4);
+	}
+
+	@Test
+	void testAnOlderVersionIndexedLateIsIgnored() {
+		search.index(3, 2, "Kotlin flows", null);
+		search.index(3, 1, "Kotlin channels", null);
+
+		assertThat(search.search("channels", PageRequest.of(0, 10))).isEmpty();
+		assertThat(search.search("flows", PageRequest.of(0, 10))).containsExactly(3L);
+	}
+
+	@Test
+	void testRemove() {
+		search.remove(1, 0);
+		search.remove(42, 0);
+
+		assertThat(search.search("spring", PageRequest.of(0, 10))).containsExactly(4L, 2L);
+		assertThat(search.search("basics", PageRequest.of(0, 10))).isEmpty();
+		assertThat(search.size()).isEqualTo(3);
+	}
+
+	@Test
+	void testAnUpdateIndexedAfterTheRemovalOfItsTutorialIsIgnored() {
+		search.remove(3, 1);
+		search.index(3, 1, "Kotlin flows", null);
+
+		assertThat(search.search("kotlin", PageRequest.of(0, 10))).isEmpty();
+		assertThat(search.size()).isEqualTo(3);
+	}
+
+	@Test
+	void testOutOfOrderIdsAreKeptSorted() {
+		search.index(0, 0, "Spring Boot basics", "A first Spring application");
+
+		// same rank as 1, ties are ordered by id
+		assertThat(search.search("spring", PageRequest.of(0, 10))).containsExactly(0L, 1L, 4L, 2L);
+	}
+
+	private static java.util.Map.Entry<String, Integer> entry(String word, int occurrences) {
+		return java.util.Map.entry(word, occurrences);
+	}
+}
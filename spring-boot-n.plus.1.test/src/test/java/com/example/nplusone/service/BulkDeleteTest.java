@@ -0,0 +1,193 @@
+package com.example.nplusone.service;
+
+import com.example.nplusone.config.MyTestConfig;
+import com.example.nplusone.model.Appointment;
+import com.example.nplusone.model.Doctor;
+import com.example.nplusone.model.Tutorial;
+import com.example.nplusone.published.PublishedTutorials;
+import com.example.nplusone.repository.DoctorRepository;
+import com.example.nplusone.repository.TutorialRepository;
+import com.example.nplusone.search.InvertedIndexTutorialSearch;
+import jakarta.persistence.EntityManager;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The bulk deletes run the same statements whatever the number of rows, and leave the persistence context and the
+ * tutorial caches consistent.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+		properties = "spring.datasource.url=jdbc:h2:mem:bulkdelete;DB_CLOSE_ON_EXIT=FALSE")
+@Import(MyTestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BulkDeleteTest {
+
+	private static final int CHILDREN_PER_DOCTOR = 5;
+
+	@Autowired
+	private DoctorService doctorService;
+
+	@Autowired
+	private TutorialService tutorialService;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private TutorialRepository tutorialRepository;
+
+	@Autowired
+	private InvertedIndexTutorialSearch tutorialSearch;
+
+	@Autowired
+	private PublishedTutorials publishedTutorials;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@AfterEach
+	void cleanUp() {
+		doctorService.deleteAllInBulk();
+		tutorialService.deleteAllInBulk();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {10, 1_000})
+	void testTutorialsAreDeletedWithOneStatement(int tutorialCount) {
+		jdbcTemplate.update("INSERT INTO tutorials (id, title, description, published)"
+				+ " SELECT NEXT VALUE FOR tutorials_seq, CONCAT('Tutorial ', X), NULL, TRUE FROM SYSTEM_RANGE(1, ?)",
+				tutorialCount);
+		QueryCountHolder.clear();
+
+		int deleted = tutorialService.deleteAllInBulk();
+
+		// the delete, then the select rebuilding the search index once it commits
+		QueryCount queryCount = QueryCountHolder.getGrandTotal();
+		assertThat(deleted).isEqualTo(tutorialCount);
+		assertThat(queryCount.getTotal()).isEqualTo(2);
+		assertThat(queryCount.getDelete()).isEqualTo(1);
+		assertThat(tutorialRepository.count()).isZero();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {10, 1_000})
+	void testDoctorGraphsAreDeletedWithThreeStatements(int doctorCount) {
+		insertDoctors(doctorCount);
+		QueryCountHolder.clear();
+
+		int deleted = doctorService.deleteAllInBulk();
+
+		QueryCount queryCount = QueryCountHolder.getGrandTotal();
+		assertThat(deleted).isEqualTo(doctorCount);
+		assertThat(queryCount.getTotal()).isEqualTo(3);
+		assertThat(queryCount.getDelete()).isEqualTo(3);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointment", Long.class)).isZero();
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM patient", Long.class)).isZero();
+		assertThat(doctorRepository.count()).isZero();
+	}
+
+	@Test
+	void testSelectedDoctorGraphsAreDeleted() {
+		insertDoctors(10);
+		List<Long> doctorIds = jdbcTemplate.queryForList("SELECT id FROM doctor ORDER BY id LIMIT 4", Long.class);
+		QueryCountHolder.clear();
+
+		int deleted = doctorService.deleteInBulk(doctorIds);
+
+		assertThat(deleted).isEqualTo(4);
+		assertThat(QueryCountHolder.getGrandTotal().getTotal()).isEqualTo(3);
+		assertThat(doctorRepository.count()).isEqualTo(6);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointment", Long.class))
+				.isEqualTo(6 * CHILDREN_PER_DOCTOR);
+		assertThat(doctorService.deleteInBulk(List.of())).isZero();
+	}
+
+	@Test
+	void testPersistenceContextStaysConsistent() {
+		Doctor deletedDoctor = new Doctor();
+		deletedDoctor.setName("Deleted");
+		deletedDoctor.addAppointment(new Appointment());
+		Doctor keptDoctor = new Doctor();
+		keptDoctor.setName("Kept");
+		doctorRepository.saveAll(List.of(deletedDoctor, keptDoctor));
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			Doctor managed = doctorRepository.findWithAppointmentsById(deletedDoctor.getId()).orElseThrow();
+			doctorRepository.findById(keptDoctor.getId()).orElseThrow().setName("Renamed");
+
+			doctorService.deleteInBulk(List.of(deletedDoctor.getId()));
+
+			assertThat(entityManager.contains(managed)).isFalse();
+			assertThat(doctorRepository.findById(deletedDoctor.getId())).isEmpty();
+		});
+
+		// the pending change was flushed before the persistence context was cleared
+		assertThat(doctorRepository.findById(keptDoctor.getId())).get().extracting(Doctor::getName).isEqualTo("Renamed");
+	}
+
+	@Test
+	void testTutorialSearchAndPublishedTutorialsFollowTheBulkDelete() {
+		tutorialRepository.save(new Tutorial("Kotlin coroutines", null, true));
+		assertThat(tutorialSearch.search("kotlin", PageRequest.of(0, 10))).hasSize(1);
+		assertThat(publishedTutorials.snapshot()).hasSize(1);
+
+		tutorialService.deleteAllInBulk();
+
+		assertThat(tutorialSearch.search("kotlin", PageRequest.of(0, 10))).isEmpty();
+		assertThat(publishedTutorials.snapshot()).isEmpty();
+	}
+
+	@Test
+	void testTutorialCommittedBeforeTheSearchIndexFollowsTheBulkDeleteStaysSearchable() {
+		TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+		newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			// registered first, so it runs once the delete commits but before the service updates the search index
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					newTransaction.executeWithoutResult(insert ->
+							tutorialRepository.save(new Tutorial("Kotlin flows", null, true)));
+				}
+			});
+			tutorialService.deleteAllInBulk();
+		});
+
+		assertThat(tutorialSearch.search("flows", PageRequest.of(0, 10))).hasSize(1);
+	}
+
+	private void insertDoctors(int doctorCount) {
+		jdbcTemplate.update("INSERT INTO doctor (id, name)"
+				+ " SELECT NEXT VALUE FOR doctor_seq, CONCAT('House', X) FROM SYSTEM_RANGE(1, ?)", doctorCount);
+		jdbcTemplate.update("INSERT INTO appointment (id, appointment_time, doctor_id)"
+				+ " SELECT NEXT VALUE FOR appointment_seq, CURRENT_TIMESTAMP, d.id FROM doctor d, SYSTEM_RANGE(1, ?)",
+				CHILDREN_PER_DOCTOR);
+		jdbcTemplate.update("INSERT INTO patient (id, name, doctor_id)"
+				+ " SELECT NEXT VALUE FOR patient_seq, CONCAT('P', X), d.id FROM doctor d, SYSTEM_RANGE(1, ?)",
+				CHILDREN_PER_DOCTOR);
+	}
+}
@@ -0,0 +1,160 @@
+package com.example.nplusone.sqllog;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncSqlLoggerTest {
+
+	private final DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:sqllog;DB_CLOSE_DELAY=-1", "sa", "");
+
+	private final List<SqlLogEntry> entries = Collections.synchronizedList(new ArrayList<>());
+
+	private final List<String> writerThreads = Collections.synchronizedList(new ArrayList<>());
+
+	private final SqlLogProperties properties = new SqlLogProperties();
+
+	private AsyncSqlLogger sqlLogger;
+
+	@BeforeEach
+	void setUp() {
+		// every statement is logged unless a test sets a threshold
+		properties.setSlowThreshold(Duration.ZERO);
+		new JdbcTemplate(dataSource).execute("create table if not exists person (id bigint, name varchar(255))");
+	}
+
+	@AfterEach
+	void cleanUp() throws InterruptedException {
+		sqlLogger.close();
+		new JdbcTemplate(dataSource).execute("drop table person");
+	}
+
+	@Test
+	void testStatementsAreWrittenOffTheJdbcThreadWithTheirBindValues() throws InterruptedException {
+		JdbcTemplate jdbcTemplate = jdbcTemplate(this::record);
+
+		jdbcTemplate.queryForList("select name from person where id = ? and name = ?", 42L, "House");
+		sqlLogger.close();
+
+		assertThat(entries).singleElement().satisfies(entry -> {
+			assertThat(entry.sql()).isEqualTo("select name from person where id = ? and name = ?");
+			assertThat(entry.parameters()).containsExactly(42L, "House");
+			assertThat(entry.thread()).isEqualTo(Thread.currentThread().getName());
+			assertThat(entry.success()).isTrue();
+			assertThat(entry.format())
+					.matches("\\d+ ms \\[.+] select name from person where id = \\? and name = \\? \\[42, House]");
+		});
+		assertThat(writerThreads).containsOnly("sql-log-writer");
+		assertThat(sqlLogger.getLoggedCount()).isEqualTo(1);
+	}
+
+	@Test
+	void testStatementsBelowTheSlowThresholdAreSkipped() throws InterruptedException {
+		properties.setSlowThreshold(Duration.ofHours(1));
+		JdbcTemplate jdbcTemplate = jdbcTemplate(this::record);
+
+		jdbcTemplate.queryForList("select name from person");
+		sqlLogger.close();
+
+		assertThat(entries).isEmpty();
+	}
+
+	@Test
+	void testUnsampledStatementsAreSkipped() throws InterruptedException {
+		properties.setSampleRate(0);
+		JdbcTemplate jdbcTemplate = jdbcTemplate(this::record);
+
+		for (int i = 0; i < 10; i++) {
+			jdbcTemplate.queryForList("select name from person");
+		}
+		sqlLogger.close();
+
+		assertThat(entries).isEmpty();
+	}
+
+	@Test
+	void testEachFingerprintIsRateLimited() throws InterruptedException {
+		properties.setMaxPerFingerprintPerSecond(3);
+		JdbcTemplate jdbcTemplate = jdbcTemplate(this::record);
+
+		for (long id = 0; id < 25; id++) {
+			jdbcTemplate.queryForList("select name from person where id = ?", id);
+			// same fingerprint, with the value inlined
+			jdbcTemplate.queryForList("select name from person where id = " + id);
+		}
+		jdbcTemplate.queryForList("select count(*) from person");
+		sqlLogger.close();
+
+		// the executions may span two seconds
+		assertThat(entries).filteredOn(entry -> entry.sql().contains("where id")).hasSizeBetween(3, 6);
+		assertThat(entries).filteredOn(entry -> entry.sql().contains("count(*)")).hasSize(1);
+		assertThat(sqlLogger.getRateLimitedCount()).isEqualTo(51 - entries.size());
+	}
+
+	@Test
+	void testFullQueueDropsStatementsInsteadOfBlocking() throws InterruptedException {
+		properties.setQueueCapacity(2);
+		CountDownLatch writerBlocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		JdbcTemplate jdbcTemplate = jdbcTemplate(entry -> {
+			writerBlocked.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			record(entry);
+		});
+
+		jdbcTemplate.queryForList("select name from person");
+		writerBlocked.await();
+		for (int i = 0; i < 9; i++) {
+			jdbcTemplate.queryForList("select name from person");
+		}
+		release.countDown();
+		sqlLogger.close();
+
+		// one written, two queued
+		assertThat(entries).hasSize(3);
+		assertThat(sqlLogger.getDroppedCount()).isEqualTo(7);
+	}
+
+	@Test
+	void testBatchIsLoggedWithItsFirstParameterSet() throws InterruptedException {
+		JdbcTemplate jdbcTemplate = jdbcTemplate(this::record);
+
+		jdbcTemplate.batchUpdate("insert into person (id, name) values (?, ?)",
+				List.of(new Object[] {1L, "House"}, new Object[] {2L, "Wilson"}, new Object[] {3L, null}));
+		sqlLogger.close();
+
+		assertThat(entries).singleElement().satisfies(entry -> {
+			assertThat(entry.batchSize()).isEqualTo(3);
+			assertThat(entry.parameters()).containsExactly(1L, "House");
+			assertThat(entry.format()).endsWith("[1, House] (batch of 3)");
+		});
+	}
+
+	private JdbcTemplate jdbcTemplate(Consumer<SqlLogEntry> writer) {
+		sqlLogger = new AsyncSqlLogger(properties, writer);
+		sqlLogger.start();
+		return new JdbcTemplate(ProxyDataSourceBuilder.create(dataSource).listener(sqlLogger).build());
+	}
+
+	private void record(SqlLogEntry entry) {
+		writerThreads.add(Thread.currentThread().getName());
+		entries.add(entry);
+	}
+}